@@ -93,6 +93,7 @@ public class Util {
     private static final int DEFAULT_SAFE_FILE_OPERATION_RETRIES = 10;
     private static final String MAX_THREADS_SYSTEM_PROPERTY = "max.bg.threads";
     private static final TracingExecutor BACKGROUND_EXECUTOR = makeExecutor("Main");
+    private static final TracingExecutor CHUNK_ENCODING_EXECUTOR = makeExecutor("ChunkEncoding", Math.max(1, maxAllowedExecutorThreads() / 4));
     private static final TracingExecutor IO_POOL = makeIoExecutor("IO-Worker-", false);
     private static final TracingExecutor DOWNLOAD_POOL = makeIoExecutor("Download-", true);
     private static final DateTimeFormatter FILENAME_DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH.mm.ss", Locale.ROOT);
@@ -150,13 +151,16 @@ public class Util {
     }
 
     private static TracingExecutor makeExecutor(String p_137478_) {
-        int i = maxAllowedExecutorThreads();
+        return makeExecutor(p_137478_, maxAllowedExecutorThreads());
+    }
+
+    private static TracingExecutor makeExecutor(String p_137478_, int threads) {
         ExecutorService executorservice;
-        if (i <= 0) {
+        if (threads <= 0) {
             executorservice = MoreExecutors.newDirectExecutorService();
         } else {
             AtomicInteger atomicinteger = new AtomicInteger(1);
-            executorservice = new ForkJoinPool(i, p_357604_ -> {
+            executorservice = new ForkJoinPool(threads, p_357604_ -> {
                 final String s = "Worker-" + p_137478_ + "-" + atomicinteger.getAndIncrement();
                 ForkJoinWorkerThread forkjoinworkerthread = new ForkJoinWorkerThread(p_357604_) {
                     @Override
@@ -210,6 +214,16 @@ public class Util {
         return BACKGROUND_EXECUTOR;
     }
 
+    public static TracingExecutor chunkEncodingExecutor() {
+        return CHUNK_ENCODING_EXECUTOR;
+    }
+
+    public static void setChunkEncodingFlushing(boolean flushing) {
+        if (CHUNK_ENCODING_EXECUTOR.service() instanceof ForkJoinPool forkjoinpool) {
+            forkjoinpool.setParallelism(flushing ? maxAllowedExecutorThreads() : Math.max(1, maxAllowedExecutorThreads() / 4));
+        }
+    }
+
     public static TracingExecutor ioPool() {
         return IO_POOL;
     }
@@ -220,6 +234,7 @@ public class Util {
 
     public static void shutdownExecutors() {
         BACKGROUND_EXECUTOR.shutdownAndAwait(3L, TimeUnit.SECONDS);
+        CHUNK_ENCODING_EXECUTOR.shutdownAndAwait(3L, TimeUnit.SECONDS);
         IO_POOL.shutdownAndAwait(3L, TimeUnit.SECONDS);
     }
 
@@ -4,22 +4,23 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
 import io.netty.handler.codec.DecoderException;
-import java.nio.ByteBuffer;
 import java.util.List;
-import java.util.zip.DataFormatException;
-import java.util.zip.Inflater;
 
 public class CompressionDecoder extends ByteToMessageDecoder {
     public static final int MAXIMUM_COMPRESSED_LENGTH = 2097152;
     public static final int MAXIMUM_UNCOMPRESSED_LENGTH = 8388608;
-    private final Inflater inflater;
+    private final NetworkCompressor compressor;
     private int threshold;
     private boolean validateDecompressed;
 
     public CompressionDecoder(int p_182675_, boolean p_182676_) {
-        this.threshold = p_182675_;
-        this.validateDecompressed = p_182676_;
-        this.inflater = new Inflater();
+        this(p_182675_, p_182676_, new ZlibNetworkCompressor(ZlibNetworkCompressor.configuredLevel()));
+    }
+
+    public CompressionDecoder(int threshold, boolean validateDecompressed, NetworkCompressor compressor) {
+        this.threshold = threshold;
+        this.validateDecompressed = validateDecompressed;
+        this.compressor = compressor;
     }
 
     @Override
@@ -39,48 +40,23 @@ public class CompressionDecoder extends ByteToMessageDecoder {
                     }
                 }
 
-                this.setupInflaterInput(p_129442_);
-                ByteBuf bytebuf = this.inflate(p_129441_, i);
-                this.inflater.reset();
+                ByteBuf bytebuf = p_129441_.alloc().directBuffer(i);
+
+                try {
+                    this.compressor.decompress(p_129442_, bytebuf, i);
+                } catch (Exception exception) {
+                    bytebuf.release();
+                    throw exception;
+                }
+
                 p_129443_.add(bytebuf);
             }
         }
     }
 
-    private void setupInflaterInput(ByteBuf p_299798_) {
-        ByteBuffer bytebuffer;
-        if (p_299798_.nioBufferCount() > 0) {
-            bytebuffer = p_299798_.nioBuffer();
-            p_299798_.skipBytes(p_299798_.readableBytes());
-        } else {
-            bytebuffer = ByteBuffer.allocateDirect(p_299798_.readableBytes());
-            p_299798_.readBytes(bytebuffer);
-            bytebuffer.flip();
-        }
-
-        this.inflater.setInput(bytebuffer);
-    }
-
-    private ByteBuf inflate(ChannelHandlerContext p_300050_, int p_298909_) throws DataFormatException {
-        ByteBuf bytebuf = p_300050_.alloc().directBuffer(p_298909_);
-
-        try {
-            ByteBuffer bytebuffer = bytebuf.internalNioBuffer(0, p_298909_);
-            int i = bytebuffer.position();
-            this.inflater.inflate(bytebuffer);
-            int j = bytebuffer.position() - i;
-            if (j != p_298909_) {
-                throw new DecoderException(
-                    "Badly compressed packet - actual length of uncompressed payload " + j + " is does not match declared size " + p_298909_
-                );
-            } else {
-                bytebuf.writerIndex(bytebuf.writerIndex() + j);
-                return bytebuf;
-            }
-        } catch (Exception exception) {
-            bytebuf.release();
-            throw exception;
-        }
+    @Override
+    protected void handlerRemoved0(ChannelHandlerContext context) throws Exception {
+        this.compressor.close();
     }
 
     public void setThreshold(int p_182678_, boolean p_182679_) {
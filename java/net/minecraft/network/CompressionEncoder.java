@@ -3,19 +3,25 @@ package net.minecraft.network;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
-import java.util.zip.Deflater;
 
 public class CompressionEncoder extends MessageToByteEncoder<ByteBuf> {
-    private final byte[] encodeBuf = new byte[8192];
-    private final Deflater deflater;
+    private final NetworkCompressor compressor;
     private int threshold;
 
     public CompressionEncoder(int p_129448_) {
-        this.threshold = p_129448_;
-        this.deflater = new Deflater();
+        this(p_129448_, new ZlibNetworkCompressor(ZlibNetworkCompressor.configuredLevel()));
+    }
+
+    public CompressionEncoder(int threshold, NetworkCompressor compressor) {
+        this.threshold = threshold;
+        this.compressor = compressor;
     }
 
     protected void encode(ChannelHandlerContext p_129452_, ByteBuf p_129453_, ByteBuf p_129454_) {
+        this.compress(p_129453_, p_129454_);
+    }
+
+    void compress(ByteBuf p_129453_, ByteBuf p_129454_) {
         int i = p_129453_.readableBytes();
         if (i > 8388608) {
             throw new IllegalArgumentException("Packet too big (is " + i + ", should be less than 8388608)");
@@ -24,22 +30,18 @@ public class CompressionEncoder extends MessageToByteEncoder<ByteBuf> {
                 VarInt.write(p_129454_, 0);
                 p_129454_.writeBytes(p_129453_);
             } else {
-                byte[] abyte = new byte[i];
-                p_129453_.readBytes(abyte);
-                VarInt.write(p_129454_, abyte.length);
-                this.deflater.setInput(abyte, 0, i);
-                this.deflater.finish();
-
-                while (!this.deflater.finished()) {
-                    int j = this.deflater.deflate(this.encodeBuf);
-                    p_129454_.writeBytes(this.encodeBuf, 0, j);
-                }
-
-                this.deflater.reset();
+                VarInt.write(p_129454_, i);
+                this.compressor.compress(p_129453_, p_129454_);
             }
         }
     }
 
+    @Override
+    public void handlerRemoved(ChannelHandlerContext context) throws Exception {
+        super.handlerRemoved(context);
+        this.compressor.close();
+    }
+
     public int getThreshold() {
         return this.threshold;
     }
@@ -47,4 +49,4 @@ public class CompressionEncoder extends MessageToByteEncoder<ByteBuf> {
     public void setThreshold(int p_129450_) {
         this.threshold = p_129450_;
     }
-}
\ No newline at end of file
+}
@@ -5,6 +5,7 @@ import com.google.common.collect.Queues;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.mojang.logging.LogUtils;
 import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelException;
 import io.netty.channel.ChannelFuture;
@@ -13,6 +14,7 @@ import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandler;
 import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOutboundBuffer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelOutboundHandler;
 import io.netty.channel.ChannelOutboundHandlerAdapter;
@@ -39,6 +41,7 @@ import java.nio.channels.ClosedChannelException;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
@@ -62,6 +65,7 @@ import net.minecraft.network.protocol.status.StatusProtocols;
 import net.minecraft.server.RunningOnDifferentThreadException;
 import net.minecraft.util.Mth;
 import net.minecraft.util.debugchart.LocalSampleLogger;
+import net.minecraft.util.profiling.jfr.JvmProfiler;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.Marker;
@@ -84,6 +88,8 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
         () -> new DefaultEventLoopGroup(0, new ThreadFactoryBuilder().setNameFormat("Netty Local Client IO #%d").setDaemon(true).build())
     );
     private static final ProtocolInfo<ServerHandshakePacketListener> INITIAL_PROTOCOL = HandshakeProtocols.SERVERBOUND;
+    private static volatile int flushLatencyMicros;
+    private static volatile int flushByteThreshold = 65536;
     private final PacketFlow receiving;
     private volatile boolean sendLoginDisconnect = true;
     private final Queue<Consumer<Connection>> pendingActions = Queues.newConcurrentLinkedQueue();
@@ -101,6 +107,14 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
     private int sentPackets;
     private float averageReceivedPackets;
     private float averageSentPackets;
+    private boolean flushScheduled;
+    private long unflushedBytes;
+    private volatile long flushes;
+    private volatile long flushedBytes;
+    private long lastFlushes;
+    private long lastFlushedBytes;
+    private float averageFlushes;
+    private float averageBytesPerFlush;
     private int tickCount;
     private boolean handlingFault;
     @Nullable
@@ -321,6 +335,16 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
         }
     }
 
+    public void send(SharedPacket sharedPacket, boolean flush) {
+        sharedPacket.retain();
+        if (this.isConnected()) {
+            this.flushQueue();
+            this.sendSharedPacket(sharedPacket, flush);
+        } else {
+            this.pendingActions.add(connection -> connection.sendSharedPacket(sharedPacket, flush));
+        }
+    }
+
     public void runOnceConnected(Consumer<Connection> p_297681_) {
         if (this.isConnected()) {
             this.flushQueue();
@@ -340,7 +364,13 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
     }
 
     private void doSendPacket(Packet<?> p_243260_, @Nullable PacketSendListener p_243290_, boolean p_299937_) {
-        ChannelFuture channelfuture = p_299937_ ? this.channel.writeAndFlush(p_243260_) : this.channel.write(p_243260_);
+        long i = this.getQueuedWriteBytes();
+        ChannelFuture channelfuture = this.channel.write(p_243260_);
+        this.unflushedBytes = this.unflushedBytes + Math.max(0L, this.getQueuedWriteBytes() - i);
+        if (p_299937_) {
+            this.requestFlush();
+        }
+
         if (p_243290_ != null) {
             channelfuture.addListener(p_243167_ -> {
                 if (p_243167_.isSuccess()) {
@@ -358,6 +388,45 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
         channelfuture.addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
     }
 
+    private void sendSharedPacket(SharedPacket sharedPacket, boolean flush) {
+        this.sentPackets++;
+        if (this.channel.eventLoop().inEventLoop()) {
+            this.doSendSharedPacket(sharedPacket, flush);
+        } else {
+            this.channel.eventLoop().execute(() -> this.doSendSharedPacket(sharedPacket, flush));
+        }
+    }
+
+    private void doSendSharedPacket(SharedPacket sharedPacket, boolean flush) {
+        try {
+            ChannelPipeline channelpipeline = this.channel.pipeline();
+            ByteBuf bytebuf = null;
+            if (channelpipeline.get("encoder") instanceof PacketEncoder<?> packetencoder
+                && channelpipeline.get("compress") instanceof CompressionEncoder compressionencoder) {
+                bytebuf = sharedPacket.encode(packetencoder.getProtocolInfo(), compressionencoder);
+                if (bytebuf != null) {
+                    JvmProfiler.INSTANCE
+                        .onPacketSent(packetencoder.getProtocolInfo().id(), sharedPacket.packet().type(), this.channel.remoteAddress(), sharedPacket.encodedSize());
+                }
+            }
+
+            if (bytebuf == null) {
+                this.doSendPacket(sharedPacket.packet(), null, flush);
+            } else {
+                long i = this.getQueuedWriteBytes();
+                ChannelFuture channelfuture = channelpipeline.context("compress").write(bytebuf);
+                this.unflushedBytes = this.unflushedBytes + Math.max(0L, this.getQueuedWriteBytes() - i);
+                if (flush) {
+                    this.requestFlush();
+                }
+
+                channelfuture.addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+            }
+        } finally {
+            sharedPacket.release();
+        }
+    }
+
     public void flushChannel() {
         if (this.isConnected()) {
             this.flush();
@@ -368,12 +437,52 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
 
     private void flush() {
         if (this.channel.eventLoop().inEventLoop()) {
-            this.channel.flush();
+            this.flushNow();
         } else {
-            this.channel.eventLoop().execute(() -> this.channel.flush());
+            this.channel.eventLoop().execute(this::flushNow);
         }
     }
 
+    private void requestFlush() {
+        if (this.unflushedBytes >= (long)flushByteThreshold) {
+            this.flushNow();
+        } else if (!this.flushScheduled) {
+            this.flushScheduled = true;
+            int i = flushLatencyMicros;
+            if (i > 0) {
+                this.channel.eventLoop().schedule(this::flushNow, (long)i, TimeUnit.MICROSECONDS);
+            } else {
+                this.channel.eventLoop().execute(this::flushNow);
+            }
+        }
+    }
+
+    private void flushNow() {
+        this.flushScheduled = false;
+        long i = this.unflushedBytes;
+        if (i > 0L) {
+            this.unflushedBytes = 0L;
+            this.flushes++;
+            this.flushedBytes += i;
+        }
+
+        this.channel.flush();
+    }
+
+    public long getQueuedWriteBytes() {
+        if (this.channel == null) {
+            return 0L;
+        } else {
+            ChannelOutboundBuffer channeloutboundbuffer = this.channel.unsafe().outboundBuffer();
+            return channeloutboundbuffer != null ? channeloutboundbuffer.totalPendingWriteBytes() : 0L;
+        }
+    }
+
+    public static void configureFlushing(int latencyMicros, int byteThreshold) {
+        flushLatencyMicros = Math.max(0, latencyMicros);
+        flushByteThreshold = Math.max(0, byteThreshold);
+    }
+
     private void flushQueue() {
         if (this.channel != null && this.channel.isOpen()) {
             synchronized (this.pendingActions) {
@@ -396,7 +505,7 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
         }
 
         if (this.channel != null) {
-            this.channel.flush();
+            this.flush();
         }
 
         if (this.tickCount++ % 20 == 0) {
@@ -413,6 +522,16 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
         this.averageReceivedPackets = Mth.lerp(0.75F, (float)this.receivedPackets, this.averageReceivedPackets);
         this.sentPackets = 0;
         this.receivedPackets = 0;
+        long i = this.flushes;
+        long j = this.flushedBytes;
+        long k = i - this.lastFlushes;
+        this.averageFlushes = Mth.lerp(0.75F, (float)k, this.averageFlushes);
+        if (k > 0L) {
+            this.averageBytesPerFlush = Mth.lerp(0.75F, (float)(j - this.lastFlushedBytes) / (float)k, this.averageBytesPerFlush);
+        }
+
+        this.lastFlushes = i;
+        this.lastFlushedBytes = j;
     }
 
     public SocketAddress getRemoteAddress() {
@@ -437,6 +556,7 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
         }
 
         if (this.isConnected()) {
+            this.channel.flush();
             this.channel.close().awaitUninterruptibly();
             this.disconnectionDetails = p_343980_;
         }
@@ -587,13 +707,13 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
             if (this.channel.pipeline().get("decompress") instanceof CompressionDecoder compressiondecoder) {
                 compressiondecoder.setThreshold(p_129485_, p_182682_);
             } else {
-                this.channel.pipeline().addAfter("splitter", "decompress", new CompressionDecoder(p_129485_, p_182682_));
+                this.channel.pipeline().addAfter("splitter", "decompress", new CompressionDecoder(p_129485_, p_182682_, this.createCompressor()));
             }
 
             if (this.channel.pipeline().get("compress") instanceof CompressionEncoder compressionencoder) {
                 compressionencoder.setThreshold(p_129485_);
             } else {
-                this.channel.pipeline().addAfter("prepender", "compress", new CompressionEncoder(p_129485_));
+                this.channel.pipeline().addAfter("prepender", "compress", new CompressionEncoder(p_129485_, this.createCompressor()));
             }
         } else {
             if (this.channel.pipeline().get("decompress") instanceof CompressionDecoder) {
@@ -606,6 +726,10 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
         }
     }
 
+    protected NetworkCompressor createCompressor() {
+        return new ZlibNetworkCompressor(ZlibNetworkCompressor.configuredLevel());
+    }
+
     public void handleDisconnection() {
         if (this.channel != null && !this.channel.isOpen()) {
             if (this.disconnectionHandled) {
@@ -632,6 +756,14 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
         return this.averageSentPackets;
     }
 
+    public float getAverageFlushes() {
+        return this.averageFlushes;
+    }
+
+    public float getAverageBytesPerFlush() {
+        return this.averageBytesPerFlush;
+    }
+
     public void setBandwidthLogger(LocalSampleLogger p_333554_) {
         this.bandwidthDebugMonitor = new BandwidthDebugMonitor(p_333554_);
     }
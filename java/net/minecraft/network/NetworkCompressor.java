@@ -0,0 +1,12 @@
+package net.minecraft.network;
+
+import io.netty.buffer.ByteBuf;
+import java.util.zip.DataFormatException;
+
+public interface NetworkCompressor {
+    void compress(ByteBuf input, ByteBuf output);
+
+    void decompress(ByteBuf input, ByteBuf output, int uncompressedSize) throws DataFormatException;
+
+    void close();
+}
@@ -17,6 +17,10 @@ public class PacketEncoder<T extends PacketListener> extends MessageToByteEncode
         this.protocolInfo = p_327768_;
     }
 
+    public ProtocolInfo<T> getProtocolInfo() {
+        return this.protocolInfo;
+    }
+
     protected void encode(ChannelHandlerContext p_130545_, Packet<T> p_130546_, ByteBuf p_130547_) throws Exception {
         PacketType<? extends Packet<? super T>> packettype = p_130546_.type();
 
@@ -0,0 +1,90 @@
+package net.minecraft.network;
+
+import com.mojang.logging.LogUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import net.minecraft.network.protocol.BundlePacket;
+import net.minecraft.network.protocol.Packet;
+import org.slf4j.Logger;
+
+public class SharedPacket {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private final Packet<?> packet;
+    private final AtomicInteger references = new AtomicInteger(1);
+    @Nullable
+    private ByteBuf encoded;
+    @Nullable
+    private ConnectionProtocol protocol;
+    private int threshold;
+    private int encodedSize;
+    private boolean failed;
+
+    public SharedPacket(Packet<?> packet) {
+        this.packet = packet;
+    }
+
+    public static boolean canShare(Packet<?> packet) {
+        return !packet.isTerminal() && !(packet instanceof BundlePacket);
+    }
+
+    public Packet<?> packet() {
+        return this.packet;
+    }
+
+    int encodedSize() {
+        return this.encodedSize;
+    }
+
+    public void retain() {
+        this.references.incrementAndGet();
+    }
+
+    public void release() {
+        if (this.references.decrementAndGet() == 0) {
+            synchronized (this) {
+                if (this.encoded != null) {
+                    this.encoded.release();
+                    this.encoded = null;
+                }
+            }
+        }
+    }
+
+    @Nullable
+    synchronized ByteBuf encode(ProtocolInfo<?> protocolInfo, CompressionEncoder compressor) {
+        if (this.failed) {
+            return null;
+        } else {
+            if (this.encoded == null) {
+                ByteBuf bytebuf = Unpooled.buffer();
+
+                try {
+                    encodePacket(protocolInfo, this.packet, bytebuf);
+                    this.encodedSize = bytebuf.readableBytes();
+                    ByteBuf bytebuf1 = Unpooled.buffer();
+                    compressor.compress(bytebuf, bytebuf1);
+                    this.encoded = bytebuf1;
+                    this.protocol = protocolInfo.id();
+                    this.threshold = compressor.getThreshold();
+                } catch (Throwable throwable) {
+                    LOGGER.debug("Failed to pre-encode shared packet {}, falling back to per-connection encoding", this.packet.type(), throwable);
+                    this.failed = true;
+                    return null;
+                } finally {
+                    bytebuf.release();
+                }
+            } else if (this.protocol != protocolInfo.id() || this.threshold != compressor.getThreshold()) {
+                return null;
+            }
+
+            return this.encoded.retainedDuplicate();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends PacketListener> void encodePacket(ProtocolInfo<T> protocolInfo, Packet<?> packet, ByteBuf output) {
+        protocolInfo.codec().encode(output, (Packet<? super T>)packet);
+    }
+}
@@ -0,0 +1,107 @@
+package net.minecraft.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.DecoderException;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import javax.annotation.Nullable;
+
+public class ZlibNetworkCompressor implements NetworkCompressor {
+    private static final int MIN_OUTPUT_CHUNK = 8192;
+    private static volatile int level = Deflater.DEFAULT_COMPRESSION;
+    private final int compressionLevel;
+    @Nullable
+    private Deflater deflater;
+    @Nullable
+    private Inflater inflater;
+
+    public ZlibNetworkCompressor(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    public static void configure(int compressionLevel) {
+        level = compressionLevel >= Deflater.NO_COMPRESSION && compressionLevel <= Deflater.BEST_COMPRESSION ? compressionLevel : Deflater.DEFAULT_COMPRESSION;
+    }
+
+    public static int configuredLevel() {
+        return level;
+    }
+
+    @Override
+    public void compress(ByteBuf input, ByteBuf output) {
+        if (this.deflater == null) {
+            this.deflater = new Deflater(this.compressionLevel);
+        }
+
+        int i = Math.max(MIN_OUTPUT_CHUNK, input.readableBytes() >> 1);
+        this.deflater.setInput(nioInput(input));
+        this.deflater.finish();
+
+        try {
+            while (!this.deflater.finished()) {
+                output.ensureWritable(i);
+                ByteBuffer bytebuffer = output.internalNioBuffer(output.writerIndex(), output.writableBytes());
+                int j = bytebuffer.position();
+                this.deflater.deflate(bytebuffer);
+                output.writerIndex(output.writerIndex() + (bytebuffer.position() - j));
+            }
+        } finally {
+            this.deflater.reset();
+        }
+    }
+
+    @Override
+    public void decompress(ByteBuf input, ByteBuf output, int uncompressedSize) throws DataFormatException {
+        if (this.inflater == null) {
+            this.inflater = new Inflater();
+        }
+
+        this.inflater.setInput(nioInput(input));
+
+        try {
+            output.ensureWritable(uncompressedSize);
+            ByteBuffer bytebuffer = output.internalNioBuffer(output.writerIndex(), uncompressedSize);
+            int i = bytebuffer.position();
+            this.inflater.inflate(bytebuffer);
+            int j = bytebuffer.position() - i;
+            if (j != uncompressedSize) {
+                throw new DecoderException(
+                    "Badly compressed packet - actual length of uncompressed payload " + j + " is does not match declared size " + uncompressedSize
+                );
+            }
+
+            output.writerIndex(output.writerIndex() + j);
+        } finally {
+            this.inflater.reset();
+        }
+    }
+
+    private static ByteBuffer nioInput(ByteBuf input) {
+        ByteBuffer bytebuffer;
+        if (input.nioBufferCount() > 0) {
+            bytebuffer = input.nioBuffer();
+            input.skipBytes(input.readableBytes());
+        } else {
+            bytebuffer = ByteBuffer.allocateDirect(input.readableBytes());
+            input.readBytes(bytebuffer);
+            bytebuffer.flip();
+        }
+
+        return bytebuffer;
+    }
+
+    @Override
+    public void close() {
+        if (this.deflater != null) {
+            this.deflater.end();
+            this.deflater = null;
+        }
+
+        if (this.inflater != null) {
+            this.inflater.end();
+            this.inflater = null;
+        }
+    }
+}
@@ -18,13 +18,27 @@ public class ClientboundLevelChunkWithLightPacket implements Packet<ClientGamePa
     private final int z;
     private final ClientboundLevelChunkPacketData chunkData;
     private final ClientboundLightUpdatePacketData lightData;
+    private final boolean cacheEncoding;
+    @Nullable
+    private volatile byte[] encodedBody;
 
     public ClientboundLevelChunkWithLightPacket(LevelChunk p_285290_, LevelLightEngine p_285254_, @Nullable BitSet p_285350_, @Nullable BitSet p_285304_) {
-        ChunkPos chunkpos = p_285290_.getPos();
+        this(p_285290_, p_285254_, p_285350_, p_285304_, false);
+    }
+
+    private ClientboundLevelChunkWithLightPacket(
+        LevelChunk chunk, LevelLightEngine lightEngine, @Nullable BitSet skyChangedLightSectionFilter, @Nullable BitSet blockChangedLightSectionFilter, boolean cacheEncoding
+    ) {
+        ChunkPos chunkpos = chunk.getPos();
         this.x = chunkpos.x;
         this.z = chunkpos.z;
-        this.chunkData = new ClientboundLevelChunkPacketData(p_285290_);
-        this.lightData = new ClientboundLightUpdatePacketData(chunkpos, p_285254_, p_285350_, p_285304_);
+        this.chunkData = new ClientboundLevelChunkPacketData(chunk);
+        this.lightData = new ClientboundLightUpdatePacketData(chunkpos, lightEngine, skyChangedLightSectionFilter, blockChangedLightSectionFilter);
+        this.cacheEncoding = cacheEncoding;
+    }
+
+    public static ClientboundLevelChunkWithLightPacket createShared(LevelChunk chunk, LevelLightEngine lightEngine) {
+        return new ClientboundLevelChunkWithLightPacket(chunk, lightEngine, null, null, true);
     }
 
     private ClientboundLevelChunkWithLightPacket(RegistryFriendlyByteBuf p_331782_) {
@@ -32,13 +46,25 @@ public class ClientboundLevelChunkWithLightPacket implements Packet<ClientGamePa
         this.z = p_331782_.readInt();
         this.chunkData = new ClientboundLevelChunkPacketData(p_331782_, this.x, this.z);
         this.lightData = new ClientboundLightUpdatePacketData(p_331782_, this.x, this.z);
+        this.cacheEncoding = false;
     }
 
     private void write(RegistryFriendlyByteBuf p_327690_) {
         p_327690_.writeInt(this.x);
         p_327690_.writeInt(this.z);
-        this.chunkData.write(p_327690_);
-        this.lightData.write(p_327690_);
+        byte[] abyte = this.encodedBody;
+        if (abyte != null) {
+            p_327690_.writeBytes(abyte);
+        } else {
+            int i = p_327690_.writerIndex();
+            this.chunkData.write(p_327690_);
+            this.lightData.write(p_327690_);
+            if (this.cacheEncoding) {
+                byte[] abyte1 = new byte[p_327690_.writerIndex() - i];
+                p_327690_.getBytes(i, abyte1);
+                this.encodedBody = abyte1;
+            }
+        }
     }
 
     @Override
@@ -0,0 +1,75 @@
+package net.minecraft.server;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+import net.minecraft.Util;
+import net.minecraft.util.TimeUtil;
+import net.minecraft.util.profiling.metrics.MetricCategory;
+import net.minecraft.util.profiling.metrics.MetricSampler;
+import net.minecraft.util.profiling.metrics.MetricsRegistry;
+import net.minecraft.util.profiling.metrics.ProfilerMeasured;
+
+public class ChunkTaskBudget implements ProfilerMeasured {
+    private static final long DEFAULT_MIN_BUDGET_NANOS = 5000000L;
+    private static volatile long minBudgetNanos = 5000000L;
+    private long deadlineNanos = Long.MAX_VALUE;
+    private long spentNanos;
+    private int deferredTasks = -1;
+    private volatile double lastSpentMillis;
+    private volatile int lastDeferredTasks;
+
+    public ChunkTaskBudget() {
+        MetricsRegistry.INSTANCE.add(this);
+    }
+
+    public static void configure(int minBudgetMicros) {
+        minBudgetNanos = Math.max(0L, (long)minBudgetMicros * 1000L);
+    }
+
+    public void startTick(long nextTickTimeNanos) {
+        this.deadlineNanos = Math.max(nextTickTimeNanos, Util.getNanos() + minBudgetNanos);
+        this.spentNanos = 0L;
+        this.deferredTasks = -1;
+    }
+
+    public void endTick() {
+        if (this.deadlineNanos != Long.MAX_VALUE) {
+            this.deadlineNanos = Long.MAX_VALUE;
+            this.lastSpentMillis = (double)this.spentNanos / (double)TimeUtil.NANOSECONDS_PER_MILLISECOND;
+            this.lastDeferredTasks = Math.max(0, this.deferredTasks);
+        }
+    }
+
+    public boolean hasTime() {
+        return this.deadlineNanos == Long.MAX_VALUE || Util.getNanos() < this.deadlineNanos;
+    }
+
+    public boolean run(BooleanSupplier task) {
+        long i = Util.getNanos();
+
+        boolean flag;
+        try {
+            flag = task.getAsBoolean();
+        } finally {
+            this.spentNanos = this.spentNanos + (Util.getNanos() - i);
+        }
+
+        return flag;
+    }
+
+    public void defer(IntSupplier pendingTasks) {
+        if (this.deferredTasks < 0) {
+            this.deferredTasks = pendingTasks.getAsInt();
+        }
+    }
+
+    @Override
+    public List<MetricSampler> profiledMetrics() {
+        return ImmutableList.of(
+            MetricSampler.create("chunk-task-time", MetricCategory.TICK_LOOP, () -> this.lastSpentMillis),
+            MetricSampler.create("chunk-tasks-deferred", MetricCategory.TICK_LOOP, () -> (double)this.lastDeferredTasks)
+        );
+    }
+}
@@ -32,11 +32,17 @@ import net.minecraft.core.RegistryAccess;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.nbt.NbtException;
 import net.minecraft.nbt.ReportedNbtException;
+import net.minecraft.network.Connection;
+import net.minecraft.network.ZlibNetworkCompressor;
 import net.minecraft.network.chat.Component;
 import net.minecraft.obfuscate.DontObfuscate;
 import net.minecraft.server.dedicated.DedicatedServer;
 import net.minecraft.server.dedicated.DedicatedServerProperties;
 import net.minecraft.server.dedicated.DedicatedServerSettings;
+import net.minecraft.server.level.ChunkPregenerator;
+import net.minecraft.server.level.EntityActivationRange;
+import net.minecraft.server.level.EntityRegionTicker;
+import net.minecraft.server.level.ShardedChunkTaskDispatcher;
 import net.minecraft.server.level.progress.LoggerChunkProgressListener;
 import net.minecraft.server.packs.repository.PackRepository;
 import net.minecraft.server.packs.repository.ServerPacksSource;
@@ -49,12 +55,21 @@ import net.minecraft.world.flag.FeatureFlags;
 import net.minecraft.world.level.GameRules;
 import net.minecraft.world.level.LevelSettings;
 import net.minecraft.world.level.WorldDataConfiguration;
+import net.minecraft.world.level.biome.MultiNoiseBiomeSource;
+import net.minecraft.world.level.chunk.storage.ChunkPrefetchCache;
+import net.minecraft.world.level.chunk.storage.RegionFileDictionaries;
+import net.minecraft.world.level.chunk.storage.RegionFileDictionaryTrainer;
+import net.minecraft.world.level.chunk.storage.RegionFileStorage;
 import net.minecraft.world.level.chunk.storage.RegionFileVersion;
 import net.minecraft.world.level.dimension.LevelStem;
+import net.minecraft.world.level.levelgen.DensityFunctionCompiler;
+import net.minecraft.world.level.levelgen.NoiseBasedChunkGenerator;
 import net.minecraft.world.level.levelgen.WorldDimensions;
 import net.minecraft.world.level.levelgen.WorldOptions;
 import net.minecraft.world.level.levelgen.presets.WorldPresets;
+import net.minecraft.world.level.lighting.LightEngine;
 import net.minecraft.world.level.storage.LevelDataAndDimensions;
+import net.minecraft.world.level.storage.LevelResource;
 import net.minecraft.world.level.storage.LevelStorageSource;
 import net.minecraft.world.level.storage.LevelSummary;
 import net.minecraft.world.level.storage.PrimaryLevelData;
@@ -87,6 +102,13 @@ public class Main {
         OptionSpec<Void> optionspec13 = optionparser.accepts("jfrProfile");
         OptionSpec<Path> optionspec14 = optionparser.accepts("pidFile").withRequiredArg().withValuesConvertedBy(new PathConverter());
         OptionSpec<String> optionspec15 = optionparser.nonOptions();
+        OptionSpec<Void> optionspec16 = optionparser.accepts("trainRegionDictionary", "Trains a region compression dictionary from the world's chunks, then quits");
+        OptionSpec<Integer> optionspec17 = optionparser.accepts("pregenerate", "Generates all chunks within the given radius of spawn without accepting connections, then quits")
+            .withRequiredArg()
+            .ofType(Integer.class);
+        OptionSpec<String> optionspec18 = optionparser.accepts("pregenerateShape").withRequiredArg().defaultsTo("square");
+        OptionSpec<String> optionspec19 = optionparser.accepts("pregenerateDimension").withRequiredArg().defaultsTo("minecraft:overworld");
+        OptionSpec<Integer> optionspec20 = optionparser.accepts("pregenerateTasks").withRequiredArg().ofType(Integer.class).defaultsTo(0);
 
         try {
             OptionSet optionset = optionparser.parse(p_129699_);
@@ -112,6 +134,22 @@ public class Main {
             DedicatedServerSettings dedicatedserversettings = new DedicatedServerSettings(path1);
             dedicatedserversettings.forceSave();
             RegionFileVersion.configure(dedicatedserversettings.getProperties().regionFileComression);
+            RegionFileStorage.configureBackend(dedicatedserversettings.getProperties().regionFileBackend);
+            ChunkPrefetchCache.configure(dedicatedserversettings.getProperties().chunkPrefetchCacheSize);
+            DensityFunctionCompiler.configure(dedicatedserversettings.getProperties().compileDensityFunctions);
+            NoiseBasedChunkGenerator.configureNoiseFill(dedicatedserversettings.getProperties().noiseFillTasks);
+            ShardedChunkTaskDispatcher.configure(dedicatedserversettings.getProperties().chunkDispatcherShards);
+            LightEngine.configureRegionPropagation(dedicatedserversettings.getProperties().lightPropagationTasks);
+            MultiNoiseBiomeSource.configureLookupCache(dedicatedserversettings.getProperties().biomeCacheSize);
+            ChunkTaskBudget.configure(dedicatedserversettings.getProperties().chunkTaskMinBudgetMicros);
+            EntityRegionTicker.configure(dedicatedserversettings.getProperties().entityRegionTickTasks);
+            EntityActivationRange.configure(
+                dedicatedserversettings.getProperties().entityActivationRange, dedicatedserversettings.getProperties().entityActivationWakeInterval
+            );
+            ZlibNetworkCompressor.configure(dedicatedserversettings.getProperties().networkCompressionLevel);
+            Connection.configureFlushing(
+                dedicatedserversettings.getProperties().networkFlushLatencyMicros, dedicatedserversettings.getProperties().networkFlushByteThreshold
+            );
             Path path2 = Paths.get("eula.txt");
             Eula eula = new Eula(path2);
             if (optionset.has(optionspec1)) {
@@ -169,6 +207,18 @@ public class Main {
                 dynamic = null;
             }
 
+            if (optionset.has(optionspec16)) {
+                RegionFileDictionaries.load(levelstoragesource$levelstorageaccess.getLevelPath(LevelResource.REGION_DICTIONARIES_DIR));
+                byte[] abyte = RegionFileDictionaryTrainer.trainFromWorld(levelstoragesource$levelstorageaccess.getLevelPath(LevelResource.ROOT));
+                if (abyte.length == 0) {
+                    LOGGER.warn("Not enough chunk data to train a region compression dictionary");
+                } else {
+                    RegionFileDictionaries.save(levelstoragesource$levelstorageaccess.getLevelPath(LevelResource.REGION_DICTIONARIES_DIR), abyte);
+                }
+
+                return;
+            }
+
             Dynamic<?> dynamic1 = dynamic;
             boolean flag = optionset.has(optionspec7);
             if (flag) {
@@ -248,6 +298,11 @@ public class Main {
 
             WorldData worlddata = worldstem.worldData();
             levelstoragesource$levelstorageaccess.saveDataTag(registryaccess$frozen, worlddata);
+            ChunkPregenerator.Settings chunkpregenerator$settings = optionset.has(optionspec17)
+                ? ChunkPregenerator.Settings.create(
+                    optionset.valueOf(optionspec19), optionset.valueOf(optionspec17), optionset.valueOf(optionspec18), optionset.valueOf(optionspec20)
+                )
+                : null;
             final DedicatedServer dedicatedserver = MinecraftServer.spin(
                 p_296433_ -> {
                     DedicatedServer dedicatedserver1 = new DedicatedServer(
@@ -263,7 +318,8 @@ public class Main {
                     dedicatedserver1.setPort(optionset.valueOf(optionspec11));
                     dedicatedserver1.setDemo(optionset.has(optionspec2));
                     dedicatedserver1.setId(optionset.valueOf(optionspec12));
-                    boolean flag2 = !optionset.has(optionspec) && !optionset.valuesOf(optionspec15).contains("nogui");
+                    dedicatedserver1.setPregeneration(chunkpregenerator$settings);
+                    boolean flag2 = chunkpregenerator$settings == null && !optionset.has(optionspec) && !optionset.valuesOf(optionspec15).contains("nogui");
                     if (flag2 && !GraphicsEnvironment.isHeadless()) {
                         dedicatedserver1.showGui();
                     }
@@ -154,6 +154,7 @@ import net.minecraft.world.level.block.entity.FuelValues;
 import net.minecraft.world.level.border.BorderChangeListener;
 import net.minecraft.world.level.border.WorldBorder;
 import net.minecraft.world.level.chunk.storage.ChunkIOErrorReporter;
+import net.minecraft.world.level.chunk.storage.RegionFileDictionaries;
 import net.minecraft.world.level.chunk.storage.RegionStorageInfo;
 import net.minecraft.world.level.dimension.LevelStem;
 import net.minecraft.world.level.levelgen.Heightmap;
@@ -250,6 +251,7 @@ public abstract class MinecraftServer extends ReentrantBlockableEventLoop<TickTa
     private boolean waitingForNextTick = false;
     private long delayedTasksMaxNextTickTimeNanos;
     private boolean mayHaveDelayedTasks;
+    private final ChunkTaskBudget chunkTaskBudget = new ChunkTaskBudget();
     private final PackRepository packRepository;
     private final ServerScoreboard scoreboard = new ServerScoreboard(this);
     @Nullable
@@ -342,6 +344,7 @@ public abstract class MinecraftServer extends ReentrantBlockableEventLoop<TickTa
         boolean flag = false;
         ProfiledDuration profiledduration = JvmProfiler.INSTANCE.onWorldLoadedStarted();
         this.worldData.setModdedInfo(this.getServerModName(), this.getModdedStatus().shouldReportAsModified());
+        RegionFileDictionaries.load(this.storageSource.getLevelPath(LevelResource.REGION_DICTIONARIES_DIR));
         ChunkProgressListener chunkprogresslistener = this.progressListenerFactory.create(this.worldData.getGameRules().getInt(GameRules.RULE_SPAWN_CHUNK_RADIUS));
         this.createLevels(chunkprogresslistener);
         this.forceDifficulty();
@@ -713,6 +716,10 @@ public abstract class MinecraftServer extends ReentrantBlockableEventLoop<TickTa
                     profilerfiller.popPush("nextTickWait");
                     this.mayHaveDelayedTasks = true;
                     this.delayedTasksMaxNextTickTimeNanos = Math.max(Util.getNanos() + i, this.nextTickTimeNanos);
+                    if (!flag) {
+                        this.chunkTaskBudget.startTick(this.nextTickTimeNanos);
+                    }
+
                     this.startMeasuringTaskExecutionTime();
                     this.waitUntilNextTick();
                     this.finishMeasuringTaskExecutionTime();
@@ -723,6 +730,7 @@ public abstract class MinecraftServer extends ReentrantBlockableEventLoop<TickTa
                     profilerfiller.pop();
                     this.logFullTickTime();
                 } finally {
+                    this.chunkTaskBudget.endTick();
                     this.endMetricsRecordingTick();
                 }
 
@@ -867,8 +875,13 @@ public abstract class MinecraftServer extends ReentrantBlockableEventLoop<TickTa
             return true;
         } else {
             if (this.tickRateManager.isSprinting() || this.haveTime()) {
+                if (!this.runningTask() && !this.chunkTaskBudget.hasTime()) {
+                    this.chunkTaskBudget.defer(this::getPendingChunkTasks);
+                    return false;
+                }
+
                 for (ServerLevel serverlevel : this.getAllLevels()) {
-                    if (serverlevel.getChunkSource().pollTask()) {
+                    if (this.chunkTaskBudget.run(serverlevel.getChunkSource()::pollTask)) {
                         return true;
                     }
                 }
@@ -878,6 +891,16 @@ public abstract class MinecraftServer extends ReentrantBlockableEventLoop<TickTa
         }
     }
 
+    private int getPendingChunkTasks() {
+        int i = 0;
+
+        for (ServerLevel serverlevel : this.getAllLevels()) {
+            i += serverlevel.getChunkSource().getPendingTasksCount();
+        }
+
+        return i;
+    }
+
     public void doRunTask(TickTask p_129957_) {
         Profiler.get().incrementCounter("runTask");
         super.doRunTask(p_129957_);
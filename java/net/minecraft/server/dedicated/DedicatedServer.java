@@ -18,6 +18,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.function.BooleanSupplier;
 import javax.annotation.Nullable;
 import net.minecraft.DefaultUncaughtExceptionHandler;
 import net.minecraft.DefaultUncaughtExceptionHandlerWithName;
@@ -33,6 +34,7 @@ import net.minecraft.server.ServerLinks;
 import net.minecraft.server.Services;
 import net.minecraft.server.WorldStem;
 import net.minecraft.server.gui.MinecraftServerGui;
+import net.minecraft.server.level.ChunkPregenerator;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.server.level.progress.ChunkProgressListenerFactory;
@@ -79,6 +81,10 @@ public class DedicatedServer extends MinecraftServer implements ServerInterface
     @Nullable
     private DebugSampleSubscriptionTracker debugSampleSubscriptionTracker;
     private final ServerLinks serverLinks;
+    @Nullable
+    private ChunkPregenerator.Settings pregenerationSettings;
+    @Nullable
+    private ChunkPregenerator pregenerator;
 
     public DedicatedServer(
         Thread p_214789_,
@@ -149,15 +155,19 @@ public class DedicatedServer extends MinecraftServer implements ServerInterface
         }
 
         this.initializeKeyPair();
-        LOGGER.info("Starting Minecraft server on {}:{}", this.getLocalIp().isEmpty() ? "*" : this.getLocalIp(), this.getPort());
+        if (this.pregenerationSettings != null) {
+            LOGGER.info("Running headless pre-generation, not accepting connections");
+        } else {
+            LOGGER.info("Starting Minecraft server on {}:{}", this.getLocalIp().isEmpty() ? "*" : this.getLocalIp(), this.getPort());
 
-        try {
-            this.getConnection().startTcpServerListener(inetaddress, this.getPort());
-        } catch (IOException ioexception) {
-            LOGGER.warn("**** FAILED TO BIND TO PORT!");
-            LOGGER.warn("The exception was: {}", ioexception.toString());
-            LOGGER.warn("Perhaps a server is already running on that port?");
-            return false;
+            try {
+                this.getConnection().startTcpServerListener(inetaddress, this.getPort());
+            } catch (IOException ioexception) {
+                LOGGER.warn("**** FAILED TO BIND TO PORT!");
+                LOGGER.warn("The exception was: {}", ioexception.toString());
+                LOGGER.warn("Perhaps a server is already running on that port?");
+                return false;
+            }
         }
 
         if (!this.usesAuthentication()) {
@@ -191,6 +201,18 @@ public class DedicatedServer extends MinecraftServer implements ServerInterface
                 this.getGameRules().getRule(GameRules.RULE_ANNOUNCE_ADVANCEMENTS).set(dedicatedserverproperties.announcePlayerAchievements, this);
             }
 
+            if (this.pregenerationSettings != null) {
+                ServerLevel serverlevel = this.getLevel(this.pregenerationSettings.dimension());
+                if (serverlevel == null) {
+                    LOGGER.error("Cannot pre-generate unknown dimension {}", this.pregenerationSettings.dimension().location());
+                    return false;
+                }
+
+                this.pregenerator = new ChunkPregenerator(serverlevel, this.pregenerationSettings);
+                this.pregenerator.start();
+                return true;
+            }
+
             if (dedicatedserverproperties.enableQuery) {
                 LOGGER.info("Starting GS4 status listener");
                 this.queryThreadGs4 = QueryThreadGs4.create(this);
@@ -277,6 +299,22 @@ public class DedicatedServer extends MinecraftServer implements ServerInterface
         }
     }
 
+    public void setPregeneration(@Nullable ChunkPregenerator.Settings settings) {
+        this.pregenerationSettings = settings;
+    }
+
+    @Override
+    protected void tickChildren(BooleanSupplier p_139661_) {
+        super.tickChildren(p_139661_);
+        if (this.pregenerator != null) {
+            this.pregenerator.tick();
+            if (this.pregenerator.isFinished()) {
+                this.pregenerator = null;
+                this.halt(false);
+            }
+        }
+    }
+
     @Override
     public void tickConnection() {
         super.tickConnection();
@@ -602,7 +640,7 @@ public class DedicatedServer extends MinecraftServer implements ServerInterface
 
     @Override
     public int pauseWhileEmptySeconds() {
-        return this.settings.getProperties().pauseWhenEmptySeconds;
+        return this.pregenerationSettings != null ? 0 : this.settings.getProperties().pauseWhenEmptySeconds;
     }
 
     private static ServerLinks createServerLinks(DedicatedServerSettings p_343848_) {
@@ -82,11 +82,25 @@ public class DedicatedServerProperties extends Settings<DedicatedServerPropertie
     public final int simulationDistance = this.get("simulation-distance", 10);
     public final int maxPlayers = this.get("max-players", 20);
     public final int networkCompressionThreshold = this.get("network-compression-threshold", 256);
+    public final int networkCompressionLevel = this.get("network-compression-level", -1);
+    public final int networkFlushLatencyMicros = this.get("network-flush-latency-micros", 0);
+    public final int networkFlushByteThreshold = this.get("network-flush-byte-threshold", 65536);
     public final boolean broadcastRconToOps = this.get("broadcast-rcon-to-ops", true);
     public final boolean broadcastConsoleToOps = this.get("broadcast-console-to-ops", true);
     public final int maxWorldSize = this.get("max-world-size", p_139771_ -> Mth.clamp(p_139771_, 1, 29999984), 29999984);
     public final boolean syncChunkWrites = this.get("sync-chunk-writes", true);
     public final String regionFileComression = this.get("region-file-compression", "deflate");
+    public final String regionFileBackend = this.get("region-file-backend", "channel");
+    public final int chunkPrefetchCacheSize = this.get("chunk-prefetch-cache-size", 32);
+    public final boolean compileDensityFunctions = this.get("compile-density-functions", true);
+    public final int noiseFillTasks = this.get("noise-fill-tasks", 0);
+    public final int chunkDispatcherShards = this.get("chunk-dispatcher-shards", 0);
+    public final int lightPropagationTasks = this.get("light-propagation-tasks", 0);
+    public final int biomeCacheSize = this.get("biome-cache-size", 16384);
+    public final int chunkTaskMinBudgetMicros = this.get("chunk-task-min-budget-micros", 5000);
+    public final int entityRegionTickTasks = this.get("entity-region-tick-tasks", 0);
+    public final String entityActivationRange = this.get("entity-activation-range", "");
+    public final int entityActivationWakeInterval = this.get("entity-activation-wake-interval", 20);
     public final boolean enableJmxMonitoring = this.get("enable-jmx-monitoring", false);
     public final boolean enableStatus = this.get("enable-status", true);
     public final boolean hideOnlinePlayers = this.get("hide-online-players", false);
@@ -39,8 +39,10 @@ import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.IntConsumer;
 import java.util.function.IntFunction;
 import java.util.function.IntSupplier;
@@ -55,8 +57,10 @@ import net.minecraft.core.SectionPos;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.NbtException;
+import net.minecraft.network.SharedPacket;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.game.ClientboundChunksBiomesPacket;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
 import net.minecraft.network.protocol.game.ClientboundSetChunkCacheCenterPacket;
 import net.minecraft.server.level.progress.ChunkProgressListener;
 import net.minecraft.server.network.ServerPlayerConnection;
@@ -118,6 +122,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
     private volatile Long2ObjectLinkedOpenHashMap<ChunkHolder> visibleChunkMap = this.updatingChunkMap.clone();
     private final Long2ObjectLinkedOpenHashMap<ChunkHolder> pendingUnloads = new Long2ObjectLinkedOpenHashMap<>();
     private final List<ChunkGenerationTask> pendingGenerationTasks = new ArrayList<>();
+    private final AtomicLongArray generatedSteps = new AtomicLongArray(ChunkStatus.getStatusList().size());
     final ServerLevel level;
     private final ThreadedLevelLightEngine lightEngine;
     private final BlockableEventLoop<Runnable> mainThreadExecutor;
@@ -127,7 +132,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
     private final PoiManager poiManager;
     final LongSet toDrop = new LongOpenHashSet();
     private boolean modified;
-    private final ChunkTaskDispatcher worldgenTaskDispatcher;
+    private final ShardedChunkTaskDispatcher worldgenTaskDispatcher;
     private final ChunkTaskDispatcher lightTaskDispatcher;
     private final ChunkProgressListener progressListener;
     private final ChunkStatusUpdateListener chunkStatusListener;
@@ -141,6 +146,8 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
     private final LongSet chunksToEagerlySave = new LongLinkedOpenHashSet();
     private final Queue<Runnable> unloadQueue = Queues.newConcurrentLinkedQueue();
     private final AtomicInteger activeChunkWrites = new AtomicInteger();
+    private final ChunkPrefetcher prefetcher = new ChunkPrefetcher(this);
+    private final ChunkPacketCache chunkPacketCache = new ChunkPacketCache();
     private int serverViewDistance;
     private final WorldGenContext worldGenContext;
 
@@ -176,13 +183,15 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
             this.randomState = RandomState.create(NoiseGeneratorSettings.dummy(), registryaccess.lookupOrThrow(Registries.NOISE), i);
         }
 
+        p_214843_.getBiomeSource().enableLookupCache(this.randomState.sampler());
+
         this.chunkGeneratorState = p_214843_.createState(registryaccess.lookupOrThrow(Registries.STRUCTURE_SET), this.randomState, i);
         this.mainThreadExecutor = p_214841_;
         ConsecutiveExecutor consecutiveexecutor1 = new ConsecutiveExecutor(p_214840_, "worldgen");
         this.progressListener = p_214844_;
         this.chunkStatusListener = p_214845_;
         ConsecutiveExecutor consecutiveexecutor = new ConsecutiveExecutor(p_214840_, "light");
-        this.worldgenTaskDispatcher = new ChunkTaskDispatcher(consecutiveexecutor1, p_214840_);
+        this.worldgenTaskDispatcher = new ShardedChunkTaskDispatcher(consecutiveexecutor1, p_214840_);
         this.lightTaskDispatcher = new ChunkTaskDispatcher(consecutiveexecutor, p_214840_);
         this.lightEngine = new ThreadedLevelLightEngine(p_214842_, this, this.level.dimensionType().hasSkyLight(), consecutiveexecutor, this.lightTaskDispatcher);
         this.distanceManager = new ChunkMap.DistanceManager(p_214840_, p_214841_);
@@ -415,24 +424,30 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
 
     protected void saveAllChunks(boolean p_140319_) {
         if (p_140319_) {
-            List<ChunkHolder> list = this.visibleChunkMap.values().stream().filter(ChunkHolder::wasAccessibleSinceLastSave).peek(ChunkHolder::refreshAccessibility).toList();
-            MutableBoolean mutableboolean = new MutableBoolean();
-
-            do {
-                mutableboolean.setFalse();
-                list.stream()
-                    .map(p_358685_ -> {
-                        this.mainThreadExecutor.managedBlock(p_358685_::isReadyForSaving);
-                        return p_358685_.getLatestChunk();
-                    })
-                    .filter(p_203088_ -> p_203088_ instanceof ImposterProtoChunk || p_203088_ instanceof LevelChunk)
-                    .filter(this::save)
-                    .forEach(p_203051_ -> mutableboolean.setTrue());
-            } while (mutableboolean.isTrue());
-
-            this.poiManager.flushAll();
-            this.processUnloads(() -> true);
-            this.flushWorker();
+            Util.setChunkEncodingFlushing(true);
+
+            try {
+                List<ChunkHolder> list = this.visibleChunkMap.values().stream().filter(ChunkHolder::wasAccessibleSinceLastSave).peek(ChunkHolder::refreshAccessibility).toList();
+                MutableBoolean mutableboolean = new MutableBoolean();
+
+                do {
+                    mutableboolean.setFalse();
+                    list.stream()
+                        .map(p_358685_ -> {
+                            this.mainThreadExecutor.managedBlock(p_358685_::isReadyForSaving);
+                            return p_358685_.getLatestChunk();
+                        })
+                        .filter(p_203088_ -> p_203088_ instanceof ImposterProtoChunk || p_203088_ instanceof LevelChunk)
+                        .filter(this::save)
+                        .forEach(p_203051_ -> mutableboolean.setTrue());
+                } while (mutableboolean.isTrue());
+
+                this.poiManager.flushAll();
+                this.processUnloads(() -> true);
+                this.flushWorker();
+            } finally {
+                Util.setChunkEncodingFlushing(false);
+            }
         } else {
             this.nextChunkSaveTime.clear();
             long i = Util.getMillis();
@@ -452,6 +467,8 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
             this.processUnloads(p_140281_);
         }
 
+        profilerfiller.popPush("chunk_prefetch");
+        this.prefetcher.tick(this.playerMap.getAllPlayers());
         profilerfiller.pop();
     }
 
@@ -523,6 +540,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
 
                     this.save(chunkaccess);
                     if (chunkaccess instanceof LevelChunk levelchunk1) {
+                        this.chunkPacketCache.invalidate(p_140182_);
                         this.level.unload(levelchunk1);
                     }
 
@@ -550,15 +568,15 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
     }
 
     private CompletableFuture<ChunkAccess> scheduleChunkLoad(ChunkPos p_140418_) {
-        CompletableFuture<Optional<SerializableChunkData>> completablefuture = this.readChunk(p_140418_)
-            .thenApplyAsync(p_358681_ -> p_358681_.map(p_358687_ -> {
-                    SerializableChunkData serializablechunkdata = SerializableChunkData.parse(this.level, this.level.registryAccess(), p_358687_);
+        CompletableFuture<Optional<SerializableChunkData>> completablefuture = this.readChunkData(p_140418_, this.level, this.level.registryAccess())
+            .thenApplyAsync(p_358681_ -> p_358681_.map(either -> either.map(Function.identity(), p_358687_ -> {
+                    SerializableChunkData serializablechunkdata = SerializableChunkData.parse(this.level, this.level.registryAccess(), this.upgradeChunkTag(p_358687_));
                     if (serializablechunkdata == null) {
                         LOGGER.error("Chunk file at {} is missing level data, skipping", p_140418_);
                     }
 
                     return serializablechunkdata;
-                }), Util.backgroundExecutor().forName("parseChunk"));
+                })), Util.backgroundExecutor().forName("parseChunk"));
         CompletableFuture<?> completablefuture1 = this.poiManager.prefetch(p_140418_);
         return completablefuture.<Object, Optional<SerializableChunkData>>thenCombine(
                 (CompletionStage<? extends Object>)completablefuture1, (p_358678_, p_358679_) -> p_358678_
@@ -635,6 +653,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
                 } else {
                     CompletableFuture<ChunkAccess> completablefuture = p_344471_.apply(this.worldGenContext, p_343410_, chunkaccess);
                     this.progressListener.onStatusChange(chunkpos, p_344471_.targetStatus());
+                    this.generatedSteps.incrementAndGet(p_344471_.targetStatus().getIndex());
                     return completablefuture;
                 }
             } catch (Exception exception) {
@@ -653,6 +672,10 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         }
     }
 
+    public long getGeneratedStepCount(ChunkStatus status) {
+        return this.generatedSteps.get(status.getIndex());
+    }
+
     @Override
     public ChunkGenerationTask scheduleGenerationTask(ChunkStatus p_345229_, ChunkPos p_342957_) {
         ChunkGenerationTask chunkgenerationtask = ChunkGenerationTask.create(this, p_345229_, p_342957_);
@@ -768,8 +791,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
                 Profiler.get().incrementCounter("chunkSave");
                 this.activeChunkWrites.incrementAndGet();
                 SerializableChunkData serializablechunkdata = SerializableChunkData.copyOf(this.level, p_140259_);
-                CompletableFuture<CompoundTag> completablefuture = CompletableFuture.supplyAsync(serializablechunkdata::write, Util.backgroundExecutor());
-                this.write(chunkpos, completablefuture::join).handle((p_358676_, p_358677_) -> {
+                this.write(chunkpos, serializablechunkdata).handle((p_358676_, p_358677_) -> {
                     if (p_358677_ != null) {
                         this.level.getServer().reportChunkSaveFailure(p_358677_, this.storageInfo(), chunkpos);
                     }
@@ -1202,6 +1224,8 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
                 levelchunk = this.level.getChunk(chunkpos.x, chunkpos.z);
             }
 
+            this.chunkPacketCache.invalidate(chunkpos.toLong());
+
             for (ServerPlayer serverplayer : this.getPlayers(chunkpos, false)) {
                 map.computeIfAbsent(serverplayer, p_274834_ -> new ArrayList<>()).add(levelchunk);
             }
@@ -1210,6 +1234,14 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         map.forEach((p_296569_, p_296570_) -> p_296569_.connection.send(ClientboundChunksBiomesPacket.forChunks((List<LevelChunk>)p_296570_)));
     }
 
+    public ClientboundLevelChunkWithLightPacket getChunkPacket(LevelChunk chunk) {
+        return this.chunkPacketCache.get(chunk, this.lightEngine);
+    }
+
+    public void invalidateChunkPacket(long pos) {
+        this.chunkPacketCache.invalidate(pos);
+    }
+
     protected PoiManager getPoiManager() {
         return this.poiManager;
     }
@@ -1280,8 +1312,18 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         }
 
         public void broadcast(Packet<?> p_140490_) {
-            for (ServerPlayerConnection serverplayerconnection : this.seenBy) {
-                serverplayerconnection.send(p_140490_);
+            if (this.seenBy.size() > 1 && SharedPacket.canShare(p_140490_)) {
+                SharedPacket sharedpacket = new SharedPacket(p_140490_);
+
+                for (ServerPlayerConnection serverplayerconnection1 : this.seenBy) {
+                    serverplayerconnection1.send(sharedpacket);
+                }
+
+                sharedpacket.release();
+            } else {
+                for (ServerPlayerConnection serverplayerconnection : this.seenBy) {
+                    serverplayerconnection.send(p_140490_);
+                }
             }
         }
 
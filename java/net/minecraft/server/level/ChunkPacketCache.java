@@ -0,0 +1,56 @@
+package net.minecraft.server.level;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.lighting.LevelLightEngine;
+
+public class ChunkPacketCache {
+    private static final int MAX_ENTRIES = 1024;
+    private final Long2ObjectLinkedOpenHashMap<ChunkPacketCache.Entry> entries = new Long2ObjectLinkedOpenHashMap<>();
+    private long hits;
+    private long misses;
+
+    public ClientboundLevelChunkWithLightPacket get(LevelChunk chunk, LevelLightEngine lightEngine) {
+        long i = chunk.getPos().toLong();
+        int j = chunk.getModificationCount();
+        ChunkPacketCache.Entry chunkpacketcache$entry = this.entries.getAndMoveToLast(i);
+        if (chunkpacketcache$entry != null && chunkpacketcache$entry.chunk == chunk && chunkpacketcache$entry.modificationCount == j) {
+            this.hits++;
+            return chunkpacketcache$entry.packet;
+        } else {
+            this.misses++;
+            ClientboundLevelChunkWithLightPacket clientboundlevelchunkwithlightpacket = ClientboundLevelChunkWithLightPacket.createShared(chunk, lightEngine);
+            this.entries.putAndMoveToLast(i, new ChunkPacketCache.Entry(chunk, j, clientboundlevelchunkwithlightpacket));
+
+            while (this.entries.size() > 1024) {
+                this.entries.removeFirst();
+            }
+
+            return clientboundlevelchunkwithlightpacket;
+        }
+    }
+
+    public void invalidate(long pos) {
+        this.entries.remove(pos);
+    }
+
+    public void clear() {
+        this.entries.clear();
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    public long hits() {
+        return this.hits;
+    }
+
+    public long misses() {
+        return this.misses;
+    }
+
+    record Entry(LevelChunk chunk, int modificationCount, ClientboundLevelChunkWithLightPacket packet) {
+    }
+}
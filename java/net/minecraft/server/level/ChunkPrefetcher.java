@@ -0,0 +1,80 @@
+package net.minecraft.server.level;
+
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.storage.ChunkPrefetchCache;
+import net.minecraft.world.phys.Vec3;
+
+public class ChunkPrefetcher {
+    private static final int LOOKAHEAD_TICKS = 40;
+    private static final double MIN_SPEED_SQR = 0.25;
+    private static final int MAX_REQUESTS_PER_TICK = 256;
+    private static final int REQUEST_HISTORY_SIZE = 8192;
+    private final ChunkMap chunkMap;
+    private Reference2ObjectMap<ServerPlayer, Vec3> lastPositions = new Reference2ObjectOpenHashMap<>();
+    private final LongLinkedOpenHashSet requested = new LongLinkedOpenHashSet();
+
+    public ChunkPrefetcher(ChunkMap chunkMap) {
+        this.chunkMap = chunkMap;
+    }
+
+    public void tick(Iterable<ServerPlayer> players) {
+        Reference2ObjectMap<ServerPlayer, Vec3> reference2objectmap = new Reference2ObjectOpenHashMap<>();
+        List<ChunkPos> list = new ArrayList<>();
+
+        for (ServerPlayer serverplayer : players) {
+            Vec3 vec3 = serverplayer.position();
+            Vec3 vec31 = this.lastPositions.get(serverplayer);
+            reference2objectmap.put(serverplayer, vec3);
+            if (vec31 != null
+                && ChunkPrefetchCache.isEnabled()
+                && list.size() < 256
+                && serverplayer.getChunkTrackingView() instanceof ChunkTrackingView.Positioned chunktrackingview$positioned) {
+                Vec3 vec32 = vec3.subtract(vec31);
+                double d0 = vec32.horizontalDistanceSqr();
+                if (d0 >= 0.25) {
+                    double d1 = Math.min(40.0, (double)(chunktrackingview$positioned.viewDistance() * 16) / Math.sqrt(d0));
+                    ChunkPos chunkpos = new ChunkPos(
+                        SectionPos.blockToSectionCoord(vec3.x + vec32.x * d1), SectionPos.blockToSectionCoord(vec3.z + vec32.z * d1)
+                    );
+                    this.collectCandidates(chunktrackingview$positioned, ChunkTrackingView.of(chunkpos, chunktrackingview$positioned.viewDistance()), list);
+                }
+            }
+        }
+
+        this.lastPositions = reference2objectmap;
+        if (!list.isEmpty()) {
+            this.chunkMap.prefetch(list);
+        }
+    }
+
+    private void collectCandidates(ChunkTrackingView.Positioned current, ChunkTrackingView predicted, List<ChunkPos> output) {
+        List<ChunkPos> list = new ArrayList<>();
+        predicted.forEach(chunkpos -> {
+            if (!current.contains(chunkpos) && !this.requested.contains(chunkpos.toLong()) && this.chunkMap.getVisibleChunkIfPresent(chunkpos.toLong()) == null) {
+                list.add(chunkpos);
+            }
+        });
+        ChunkPos chunkpos = current.center();
+        list.sort(Comparator.comparingInt(pos -> pos.distanceSquared(chunkpos)));
+
+        for (ChunkPos chunkpos1 : list) {
+            if (output.size() >= 256) {
+                break;
+            }
+
+            this.requested.addAndMoveToLast(chunkpos1.toLong());
+            if (this.requested.size() > 8192) {
+                this.requested.removeFirstLong();
+            }
+
+            output.add(chunkpos1);
+        }
+    }
+}
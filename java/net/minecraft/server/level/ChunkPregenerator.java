@@ -0,0 +1,354 @@
+package net.minecraft.server.level;
+
+import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.longs.Long2LongRBTreeMap;
+import it.unimi.dsi.fastutil.longs.Long2LongSortedMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.StringJoiner;
+import javax.annotation.Nullable;
+import net.minecraft.Util;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.status.ChunkStatus;
+import net.minecraft.world.level.dimension.DimensionType;
+import net.minecraft.world.level.storage.LevelResource;
+import org.slf4j.Logger;
+
+public class ChunkPregenerator {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final int REGION_SIZE = 32;
+    private static final int LOADED_CHUNKS_PER_TASK = 64;
+    private static final long REPORT_INTERVAL_MS = 10000L;
+    private static final long CHECKPOINT_INTERVAL_MS = 60000L;
+    private static final String CHECKPOINT_FILE = "pregeneration.dat";
+    private final ServerLevel level;
+    private final ChunkPregenerator.Settings settings;
+    private final ChunkPos center;
+    private final LongList regions;
+    private final long end;
+    private final long total;
+    private final Path checkpointPath;
+    private final Long2LongSortedMap inFlight = new Long2LongRBTreeMap();
+    private final long[] lastStepCounts = new long[ChunkStatus.getStatusList().size()];
+    private long cursor;
+    private long issued;
+    private long completed;
+    private long failed;
+    private long pendingCheckpointCursor = -1L;
+    private long pendingCheckpointIssued;
+    private long startTime;
+    private long lastReportTime;
+    private long lastReportCompleted;
+    private long lastCheckpointTime;
+    private boolean finished;
+
+    public ChunkPregenerator(ServerLevel level, ChunkPregenerator.Settings settings) {
+        this.level = level;
+        this.settings = settings;
+        this.center = new ChunkPos(level.getSharedSpawnPos());
+        this.regions = collectRegions(this.center, settings.radius());
+        this.end = (long)this.regions.size() * 1024L;
+        this.total = settings.shape().count(settings.radius());
+        this.checkpointPath = DimensionType.getStorageFolder(level.dimension(), level.getServer().getWorldPath(LevelResource.ROOT)).resolve("pregeneration.dat");
+    }
+
+    private static LongList collectRegions(ChunkPos center, int radius) {
+        int i = center.getRegionX();
+        int j = center.getRegionZ();
+        int k = (center.x - radius) >> 5;
+        int l = (center.x + radius) >> 5;
+        int i1 = (center.z - radius) >> 5;
+        int j1 = (center.z + radius) >> 5;
+        LongList longlist = new LongArrayList();
+
+        for (int k1 = i1; k1 <= j1; k1++) {
+            for (int l1 = k; l1 <= l; l1++) {
+                longlist.add(ChunkPos.asLong(l1, k1));
+            }
+        }
+
+        longlist.sort(
+            (long first, long second) -> Integer.compare(
+                Math.max(Math.abs(ChunkPos.getX(first) - i), Math.abs(ChunkPos.getZ(first) - j)),
+                Math.max(Math.abs(ChunkPos.getX(second) - i), Math.abs(ChunkPos.getZ(second) - j))
+            )
+        );
+        return longlist;
+    }
+
+    public void start() {
+        this.readCheckpoint();
+        this.startTime = Util.getMillis();
+        this.lastReportTime = this.startTime;
+        this.lastReportCompleted = this.completed;
+        this.lastCheckpointTime = this.startTime;
+        ChunkMap chunkmap = this.level.getChunkSource().chunkMap;
+
+        for (ChunkStatus chunkstatus : ChunkStatus.getStatusList()) {
+            this.lastStepCounts[chunkstatus.getIndex()] = chunkmap.getGeneratedStepCount(chunkstatus);
+        }
+
+        LOGGER.info(
+            "Pre-generating {} chunks of {} in a {} of radius {} around {} ({} already done)",
+            this.total,
+            this.level.dimension().location(),
+            this.settings.shape().getName(),
+            this.settings.radius(),
+            this.center,
+            this.completed
+        );
+    }
+
+    public void tick() {
+        if (!this.finished) {
+            this.scheduleChunks();
+            long i = Util.getMillis();
+            if (i - this.lastReportTime >= 10000L) {
+                this.report(i);
+            }
+
+            if (this.cursor >= this.end && this.inFlight.isEmpty()) {
+                this.finish();
+            } else if (i - this.lastCheckpointTime >= 60000L) {
+                this.checkpoint();
+                this.lastCheckpointTime = i;
+            }
+        }
+    }
+
+    public boolean isFinished() {
+        return this.finished;
+    }
+
+    private void scheduleChunks() {
+        ServerChunkCache serverchunkcache = this.level.getChunkSource();
+        ChunkMap chunkmap = serverchunkcache.chunkMap;
+        int i = this.settings.maxInFlight() * 64;
+        LongList longlist = new LongArrayList();
+
+        while (this.inFlight.size() < this.settings.maxInFlight() && chunkmap.size() < i && this.cursor < this.end) {
+            long j = this.cursor++;
+            ChunkPos chunkpos = this.positionOf(j);
+            if (this.settings.shape().contains(chunkpos.x - this.center.x, chunkpos.z - this.center.z, this.settings.radius())) {
+                this.inFlight.put(j, this.issued++);
+                serverchunkcache.addRegionTicket(TicketType.PREGENERATION, chunkpos, 0, chunkpos);
+                longlist.add(j);
+            }
+        }
+
+        if (!longlist.isEmpty()) {
+            serverchunkcache.runDistanceManagerUpdates();
+
+            for (int k = 0; k < longlist.size(); k++) {
+                long l = longlist.getLong(k);
+                ChunkPos chunkpos1 = this.positionOf(l);
+                ChunkHolder chunkholder = chunkmap.getVisibleChunkIfPresent(chunkpos1.toLong());
+                if (chunkholder == null) {
+                    this.onChunkDone(l, chunkpos1, null);
+                } else {
+                    chunkholder.scheduleChunkGenerationTask(ChunkStatus.FULL, chunkmap)
+                        .whenCompleteAsync((result, throwable) -> this.onChunkDone(l, chunkpos1, throwable == null ? result : null), this.level.getServer());
+                }
+            }
+
+            chunkmap.runGenerationTasks();
+        }
+    }
+
+    private void onChunkDone(long index, ChunkPos pos, @Nullable ChunkResult<ChunkAccess> result) {
+        this.level.getChunkSource().removeRegionTicket(TicketType.PREGENERATION, pos, 0, pos);
+        this.inFlight.remove(index);
+        this.completed++;
+        if (result == null || !result.isSuccess()) {
+            this.failed++;
+            LOGGER.warn("Failed to pre-generate chunk {} in {}", pos, this.level.dimension().location());
+        }
+    }
+
+    private ChunkPos positionOf(long index) {
+        long i = this.regions.getLong((int)(index >> 10));
+        int j = (int)(index & 1023L);
+        return new ChunkPos(ChunkPos.getX(i) * 32 + (j & 31), ChunkPos.getZ(i) * 32 + (j >> 5));
+    }
+
+    private void report(long time) {
+        double d0 = (double)(time - this.lastReportTime) / 1000.0;
+        ChunkMap chunkmap = this.level.getChunkSource().chunkMap;
+        StringJoiner stringjoiner = new StringJoiner(", ");
+
+        for (ChunkStatus chunkstatus : ChunkStatus.getStatusList()) {
+            long i = chunkmap.getGeneratedStepCount(chunkstatus);
+            long j = i - this.lastStepCounts[chunkstatus.getIndex()];
+            this.lastStepCounts[chunkstatus.getIndex()] = i;
+            if (j > 0L) {
+                stringjoiner.add(String.format(Locale.ROOT, "%s %.1f/s", chunkstatus.getName(), (double)j / d0));
+            }
+        }
+
+        LOGGER.info(
+            "Pre-generating {}: {}/{} chunks ({}%), {} chunks/s, {} in flight [{}]",
+            this.level.dimension().location(),
+            this.completed,
+            this.total,
+            String.format(Locale.ROOT, "%.1f", this.total == 0L ? 100.0 : (double)this.completed * 100.0 / (double)this.total),
+            String.format(Locale.ROOT, "%.1f", (double)(this.completed - this.lastReportCompleted) / d0),
+            this.inFlight.size(),
+            stringjoiner
+        );
+        this.lastReportTime = time;
+        this.lastReportCompleted = this.completed;
+    }
+
+    private void checkpoint() {
+        ChunkMap chunkmap = this.level.getChunkSource().chunkMap;
+        chunkmap.saveAllChunks(false);
+        chunkmap.flushWorker();
+        if (this.pendingCheckpointCursor >= 0L) {
+            this.writeCheckpoint(this.pendingCheckpointCursor, this.pendingCheckpointIssued);
+        }
+
+        if (this.inFlight.isEmpty()) {
+            this.pendingCheckpointCursor = this.cursor;
+            this.pendingCheckpointIssued = this.issued;
+        } else {
+            this.pendingCheckpointCursor = this.inFlight.firstLongKey();
+            this.pendingCheckpointIssued = this.inFlight.get(this.pendingCheckpointCursor);
+        }
+    }
+
+    private void finish() {
+        this.finished = true;
+        this.level.getChunkSource().save(true);
+
+        try {
+            Files.deleteIfExists(this.checkpointPath);
+        } catch (IOException ioexception) {
+            LOGGER.warn("Failed to delete pre-generation checkpoint {}", this.checkpointPath, ioexception);
+        }
+
+        double d0 = Math.max(0.001, (double)(Util.getMillis() - this.startTime) / 1000.0);
+        LOGGER.info(
+            "Pre-generated {} chunks of {} in {}s ({} chunks/s, {} failed)",
+            this.completed,
+            this.level.dimension().location(),
+            String.format(Locale.ROOT, "%.1f", d0),
+            String.format(Locale.ROOT, "%.1f", (double)this.completed / d0),
+            this.failed
+        );
+    }
+
+    private void readCheckpoint() {
+        if (Files.exists(this.checkpointPath)) {
+            try {
+                CompoundTag compoundtag = NbtIo.readCompressed(this.checkpointPath, NbtAccounter.unlimitedHeap());
+                if (compoundtag.getInt("center_x") == this.center.x
+                    && compoundtag.getInt("center_z") == this.center.z
+                    && compoundtag.getInt("radius") == this.settings.radius()
+                    && compoundtag.getString("shape").equals(this.settings.shape().getName())) {
+                    this.cursor = Math.min(compoundtag.getLong("next"), this.end);
+                    this.issued = compoundtag.getLong("done");
+                    this.completed = this.issued;
+                    LOGGER.info("Resuming pre-generation of {} from checkpoint {}", this.level.dimension().location(), this.checkpointPath);
+                } else {
+                    LOGGER.warn("Ignoring pre-generation checkpoint {} written for a different area", this.checkpointPath);
+                }
+            } catch (IOException ioexception) {
+                LOGGER.warn("Failed to read pre-generation checkpoint {}", this.checkpointPath, ioexception);
+            }
+        }
+    }
+
+    private void writeCheckpoint(long next, long done) {
+        CompoundTag compoundtag = new CompoundTag();
+        compoundtag.putInt("center_x", this.center.x);
+        compoundtag.putInt("center_z", this.center.z);
+        compoundtag.putInt("radius", this.settings.radius());
+        compoundtag.putString("shape", this.settings.shape().getName());
+        compoundtag.putLong("next", next);
+        compoundtag.putLong("done", done);
+
+        try {
+            Path path = this.checkpointPath.resolveSibling("pregeneration.dat_new");
+            Files.createDirectories(path.getParent());
+            NbtIo.writeCompressed(compoundtag, path);
+            Util.safeReplaceFile(this.checkpointPath, path, this.checkpointPath.resolveSibling("pregeneration.dat_old"));
+        } catch (IOException ioexception) {
+            LOGGER.warn("Failed to write pre-generation checkpoint {}", this.checkpointPath, ioexception);
+        }
+    }
+
+    public static enum Shape {
+        SQUARE("square"),
+        CIRCLE("circle");
+
+        private final String name;
+
+        private Shape(final String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public boolean contains(int dx, int dz, int radius) {
+            return this == SQUARE ? Math.abs(dx) <= radius && Math.abs(dz) <= radius : (long)dx * (long)dx + (long)dz * (long)dz <= (long)radius * (long)radius;
+        }
+
+        long count(int radius) {
+            long i = 0L;
+
+            for (int j = -radius; j <= radius; j++) {
+                int k = this == SQUARE ? radius : (int)Math.sqrt((double)((long)radius * (long)radius - (long)j * (long)j));
+                i += (long)(k * 2 + 1);
+            }
+
+            return i;
+        }
+
+        @Nullable
+        public static ChunkPregenerator.Shape byName(String name) {
+            for (ChunkPregenerator.Shape chunkpregenerator$shape : values()) {
+                if (chunkpregenerator$shape.name.equalsIgnoreCase(name)) {
+                    return chunkpregenerator$shape;
+                }
+            }
+
+            return null;
+        }
+    }
+
+    public static record Settings(ResourceKey<Level> dimension, int radius, ChunkPregenerator.Shape shape, int maxInFlight) {
+        public static int defaultMaxInFlight() {
+            return Math.max(32, Runtime.getRuntime().availableProcessors() * 8);
+        }
+
+        public static ChunkPregenerator.Settings create(String dimension, int radius, String shape, int maxInFlight) {
+            ChunkPregenerator.Shape chunkpregenerator$shape = ChunkPregenerator.Shape.byName(shape);
+            if (chunkpregenerator$shape == null) {
+                throw new IllegalArgumentException("Unknown pre-generation shape: " + shape);
+            } else if (radius < 0) {
+                throw new IllegalArgumentException("Pre-generation radius must not be negative: " + radius);
+            } else {
+                return new ChunkPregenerator.Settings(
+                    ResourceKey.create(Registries.DIMENSION, ResourceLocation.parse(dimension)),
+                    radius,
+                    chunkpregenerator$shape,
+                    maxInFlight > 0 ? maxInFlight : defaultMaxInFlight()
+                );
+            }
+        }
+    }
+}
@@ -19,7 +19,7 @@ public class ChunkTaskDispatcher implements ChunkHolder.LevelChangeListener, Aut
     private final ChunkTaskPriorityQueue queue;
     private final TaskScheduler<Runnable> executor;
     private final PriorityConsecutiveExecutor dispatcher;
-    protected boolean sleeping;
+    protected volatile boolean sleeping;
 
     public ChunkTaskDispatcher(TaskScheduler<Runnable> p_361144_, Executor p_369214_) {
         this.queue = new ChunkTaskPriorityQueue(p_361144_.name() + "_queue");
@@ -77,10 +77,22 @@ public class ChunkTaskDispatcher implements ChunkHolder.LevelChangeListener, Aut
     }
 
     protected void scheduleForExecution(ChunkTaskPriorityQueue.TasksForChunk p_361766_) {
-        CompletableFuture.allOf(p_361766_.tasks().stream().map(p_363376_ -> this.executor.scheduleWithResult(p_366925_ -> {
-                p_363376_.run();
-                p_366925_.complete(Unit.INSTANCE);
-            })).toArray(CompletableFuture[]::new)).thenAccept(p_367735_ -> this.pollTask());
+        this.runTasks(p_361766_).thenAccept(p_367735_ -> this.pollTask());
+    }
+
+    protected CompletableFuture<Void> runTasks(ChunkTaskPriorityQueue.TasksForChunk tasks) {
+        return CompletableFuture.allOf(tasks.tasks().stream().map(p_363376_ -> this.executor.scheduleWithResult(p_366925_ -> {
+            p_363376_.run();
+            p_366925_.complete(Unit.INSTANCE);
+        })).toArray(CompletableFuture[]::new));
+    }
+
+    protected void scheduleDispatch(int priority, Runnable task) {
+        this.dispatcher.schedule(new StrictQueue.RunnableWithPriority(priority, task));
+    }
+
+    int getTopPriority() {
+        return this.queue.getTopPriority();
     }
 
     protected void onRelease(long p_362676_) {
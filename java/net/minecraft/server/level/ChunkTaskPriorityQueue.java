@@ -82,6 +82,10 @@ public class ChunkTaskPriorityQueue {
         return this.topPriorityQueueIndex < PRIORITY_LEVEL_COUNT;
     }
 
+    public int getTopPriority() {
+        return this.topPriorityQueueIndex;
+    }
+
     @Override
     public String toString() {
         return this.name + " " + this.topPriorityQueueIndex + "...";
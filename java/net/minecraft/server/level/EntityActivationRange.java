@@ -0,0 +1,153 @@
+package net.minecraft.server.level;
+
+import com.google.common.collect.ImmutableList;
+import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import net.minecraft.util.profiling.metrics.MetricCategory;
+import net.minecraft.util.profiling.metrics.MetricSampler;
+import net.minecraft.util.profiling.metrics.MetricsRegistry;
+import net.minecraft.util.profiling.metrics.ProfilerMeasured;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.MobCategory;
+import net.minecraft.world.level.entity.EntityTypeTest;
+import org.slf4j.Logger;
+
+public class EntityActivationRange implements ProfilerMeasured {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final int WAKE_AFTER_HURT_TICKS = 100;
+    private static volatile double[] rangesSqr = createDisabledRanges();
+    private static volatile double maxRange = -1.0;
+    private static volatile int wakeInterval = 20;
+    private final ServerLevel level;
+    private final IntSet activeMobs = new IntOpenHashSet();
+    private final List<Mob> nearbyMobs = new ArrayList<>();
+    private final int[] population = new int[EntityActivationRange.Tier.values().length];
+    private int skippedTicks;
+    private volatile int[] lastPopulation = new int[EntityActivationRange.Tier.values().length];
+    private volatile int lastSkippedTicks;
+
+    public EntityActivationRange(ServerLevel level) {
+        this.level = level;
+        MetricsRegistry.INSTANCE.add(this);
+    }
+
+    private static double[] createDisabledRanges() {
+        double[] adouble = new double[MobCategory.values().length];
+        Arrays.fill(adouble, -1.0);
+        return adouble;
+    }
+
+    public static void configure(String ranges, int wakeInterval) {
+        double[] adouble = createDisabledRanges();
+        double d0 = -1.0;
+
+        for (String s : ranges.split(",")) {
+            String[] astring = s.trim().split("=");
+            if (astring.length == 2) {
+                MobCategory mobcategory = Arrays.stream(MobCategory.values())
+                    .filter(category -> category.getName().equals(astring[0].trim()))
+                    .findFirst()
+                    .orElse(null);
+
+                try {
+                    int i = Integer.parseInt(astring[1].trim());
+                    if (mobcategory != null && i > 0) {
+                        adouble[mobcategory.ordinal()] = (double)i * (double)i;
+                        d0 = Math.max(d0, (double)i);
+                        continue;
+                    }
+                } catch (NumberFormatException numberformatexception) {
+                }
+            }
+
+            if (!s.isBlank()) {
+                LOGGER.error("Invalid `entity-activation-range` entry `{}` in server.properties. Expected `<mob category>=<blocks>`", s);
+            }
+        }
+
+        rangesSqr = adouble;
+        maxRange = d0;
+        EntityActivationRange.wakeInterval = Math.max(1, wakeInterval);
+    }
+
+    public void tick() {
+        this.lastPopulation = this.population.clone();
+        this.lastSkippedTicks = this.skippedTicks;
+        Arrays.fill(this.population, 0);
+        this.skippedTicks = 0;
+        this.activeMobs.clear();
+        double d0 = maxRange;
+        if (d0 > 0.0) {
+            double[] adouble = rangesSqr;
+
+            for (ServerPlayer serverplayer : this.level.players()) {
+                this.level.getEntities(EntityTypeTest.forClass(Mob.class), serverplayer.getBoundingBox().inflate(d0), mob -> true, this.nearbyMobs);
+
+                for (Mob mob : this.nearbyMobs) {
+                    double d1 = adouble[mob.getType().getCategory().ordinal()];
+                    if (d1 >= 0.0 && serverplayer.distanceToSqr(mob) <= d1) {
+                        this.activeMobs.add(mob.getId());
+                    }
+                }
+
+                this.nearbyMobs.clear();
+            }
+        }
+    }
+
+    public boolean shouldRunAi(Mob mob) {
+        EntityActivationRange.Tier entityactivationrange$tier = this.getTier(mob);
+        this.population[entityactivationrange$tier.ordinal()]++;
+        if (entityactivationrange$tier == EntityActivationRange.Tier.INACTIVE) {
+            this.skippedTicks++;
+            return false;
+        } else {
+            return true;
+        }
+    }
+
+    private EntityActivationRange.Tier getTier(Mob mob) {
+        double d0 = rangesSqr[mob.getType().getCategory().ordinal()];
+        if (d0 < 0.0) {
+            return EntityActivationRange.Tier.ACTIVE;
+        } else if (this.activeMobs.contains(mob.getId())) {
+            return EntityActivationRange.Tier.ACTIVE;
+        } else {
+            return !this.hasWakeTrigger(mob) && (mob.tickCount + mob.getId()) % wakeInterval != 0
+                ? EntityActivationRange.Tier.INACTIVE
+                : EntityActivationRange.Tier.WOKEN;
+        }
+    }
+
+    private boolean hasWakeTrigger(Mob mob) {
+        return mob.hurtTime > 0
+            || mob.getLastHurtByMob() != null && mob.tickCount - mob.getLastHurtByMobTimestamp() < 100
+            || mob.getTarget() != null
+            || mob.isInWater()
+            || mob.isInLava()
+            || mob.isPassenger()
+            || mob.isVehicle()
+            || mob.isLeashed();
+    }
+
+    @Override
+    public List<MetricSampler> profiledMetrics() {
+        String s = "entity-activation-" + this.level.dimension().location();
+        return ImmutableList.of(
+            MetricSampler.create(s + "-active", MetricCategory.TICK_LOOP, () -> (double)this.lastPopulation[EntityActivationRange.Tier.ACTIVE.ordinal()]),
+            MetricSampler.create(s + "-woken", MetricCategory.TICK_LOOP, () -> (double)this.lastPopulation[EntityActivationRange.Tier.WOKEN.ordinal()]),
+            MetricSampler.create(s + "-inactive", MetricCategory.TICK_LOOP, () -> (double)this.lastPopulation[EntityActivationRange.Tier.INACTIVE.ordinal()]),
+            MetricSampler.create(s + "-skipped-ticks", MetricCategory.TICK_LOOP, () -> (double)this.lastSkippedTicks)
+        );
+    }
+
+    static enum Tier {
+        ACTIVE,
+        WOKEN,
+        INACTIVE;
+    }
+}
@@ -0,0 +1,163 @@
+package net.minecraft.server.level;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.minecraft.Util;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.entity.EntityTickList;
+import net.minecraft.world.level.entity.RegionTickContext;
+
+public class EntityRegionTicker {
+    private static final int REGION_SIZE_BITS = 3;
+    private static final int MIN_PARALLEL_ENTITIES = 512;
+    private static volatile int configuredTasks;
+    private final ServerLevel level;
+    private final List<Entity> pending = new ArrayList<>();
+    private boolean enabled;
+    private int eligible;
+
+    public EntityRegionTicker(ServerLevel level) {
+        this.level = level;
+    }
+
+    public static void configure(int tasks) {
+        configuredTasks = tasks;
+    }
+
+    private static boolean canTickInRegion(Entity entity) {
+        return entity.canTickInRegion() && !entity.isVehicle() && entity.portalProcess == null;
+    }
+
+    public void startTick(EntityTickList entities) {
+        this.enabled = false;
+        if (configuredTasks > 1) {
+            this.eligible = 0;
+            entities.forEach(entity -> {
+                if (canTickInRegion(entity)) {
+                    this.eligible++;
+                }
+            });
+            this.enabled = this.eligible >= 512;
+        }
+    }
+
+    public boolean offer(Entity entity) {
+        if (this.enabled && canTickInRegion(entity)) {
+            this.pending.add(entity);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    public void tickPending() {
+        if (!this.pending.isEmpty()) {
+            try {
+                this.tickInRegions();
+            } finally {
+                this.pending.clear();
+            }
+        }
+    }
+
+    private void tickEntity(Entity entity) {
+        if (!entity.isRemoved()) {
+            this.level.guardEntityTick(this.level::tickNonPassenger, entity);
+        }
+    }
+
+    private void tickInRegions() {
+        List<List<EntityRegionTicker.Region>> list = new ArrayList<>(4);
+        Long2ObjectMap<EntityRegionTicker.Region> long2objectmap = new Long2ObjectLinkedOpenHashMap<>();
+
+        for (int i = 0; i < 4; i++) {
+            list.add(new ArrayList<>());
+        }
+
+        for (Entity entity : this.pending) {
+            int j = entity.chunkPosition().x >> 3;
+            int k = entity.chunkPosition().z >> 3;
+            EntityRegionTicker.Region entityregionticker$region = long2objectmap.get(ChunkPos.asLong(j, k));
+            if (entityregionticker$region == null) {
+                entityregionticker$region = new EntityRegionTicker.Region();
+                long2objectmap.put(ChunkPos.asLong(j, k), entityregionticker$region);
+                list.get((j & 1) | (k & 1) << 1).add(entityregionticker$region);
+            }
+
+            entityregionticker$region.entities.add(entity);
+        }
+
+        RegionTickContext.setActive(true);
+
+        try {
+            for (List<EntityRegionTicker.Region> list1 : list) {
+                if (!list1.isEmpty()) {
+                    this.runRegions(list1);
+
+                    for (EntityRegionTicker.Region entityregionticker$region1 : list1) {
+                        entityregionticker$region1.context.flush();
+                    }
+                }
+            }
+        } finally {
+            RegionTickContext.setActive(false);
+        }
+    }
+
+    private void runRegions(List<EntityRegionTicker.Region> regions) {
+        List<CompletableFuture<Void>> list = new ArrayList<>(regions.size());
+
+        for (int i = 0; i < regions.size(); i++) {
+            list.add(new CompletableFuture<>());
+        }
+
+        AtomicInteger atomicinteger = new AtomicInteger();
+        Runnable runnable = () -> {
+            for (int k = atomicinteger.getAndIncrement(); k < regions.size(); k = atomicinteger.getAndIncrement()) {
+                EntityRegionTicker.Region entityregionticker$region = regions.get(k);
+
+                try {
+                    entityregionticker$region.context.run(() -> {
+                        for (Entity entity : entityregionticker$region.entities) {
+                            this.tickEntity(entity);
+                        }
+                    });
+                    list.get(k).complete(null);
+                } catch (Throwable throwable) {
+                    list.get(k).completeExceptionally(throwable);
+                }
+            }
+        };
+        Executor executor = Util.backgroundExecutor().forName("entity_regions");
+
+        for (int j = Math.min(configuredTasks, regions.size()); j > 1; j--) {
+            executor.execute(runnable);
+        }
+
+        runnable.run();
+
+        for (CompletableFuture<Void> completablefuture : list) {
+            try {
+                completablefuture.join();
+            } catch (CompletionException completionexception) {
+                if (completionexception.getCause() instanceof RuntimeException runtimeexception) {
+                    throw runtimeexception;
+                }
+
+                throw completionexception;
+            }
+        }
+    }
+
+    static class Region {
+        final List<Entity> entities = new ArrayList<>();
+        final RegionTickContext context = new RegionTickContext();
+    }
+}
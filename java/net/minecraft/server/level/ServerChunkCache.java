@@ -21,6 +21,7 @@ import net.minecraft.FileUtil;
 import net.minecraft.Util;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.SectionPos;
+import net.minecraft.core.registries.Registries;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.progress.ChunkProgressListener;
@@ -36,16 +37,20 @@ import net.minecraft.world.level.GameRules;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.LightLayer;
 import net.minecraft.world.level.LocalMobCapCalculator;
+import net.minecraft.world.level.NaturalSpawnCounter;
 import net.minecraft.world.level.NaturalSpawner;
+import net.minecraft.world.level.biome.Biomes;
 import net.minecraft.world.level.chunk.ChunkAccess;
 import net.minecraft.world.level.chunk.ChunkGenerator;
 import net.minecraft.world.level.chunk.ChunkGeneratorStructureState;
 import net.minecraft.world.level.chunk.ChunkSource;
+import net.minecraft.world.level.chunk.EmptyLevelChunk;
 import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraft.world.level.chunk.LightChunk;
 import net.minecraft.world.level.chunk.status.ChunkStatus;
 import net.minecraft.world.level.chunk.storage.ChunkScanAccess;
 import net.minecraft.world.level.entity.ChunkStatusUpdateListener;
+import net.minecraft.world.level.entity.RegionTickContext;
 import net.minecraft.world.level.levelgen.RandomState;
 import net.minecraft.world.level.levelgen.structure.templatesystem.StructureTemplateManager;
 import net.minecraft.world.level.storage.DimensionDataStorage;
@@ -73,6 +78,9 @@ public class ServerChunkCache extends ChunkSource {
     @Nullable
     @VisibleForDebug
     private NaturalSpawner.SpawnState lastSpawnState;
+    private final NaturalSpawnCounter naturalSpawnCounter = new NaturalSpawnCounter();
+    private final boolean hasMobSpawnCosts;
+    private final LevelChunk emptyChunk;
 
     public ServerChunkCache(
         ServerLevel p_214982_,
@@ -106,6 +114,8 @@ public class ServerChunkCache extends ChunkSource {
         this.lightEngine = this.chunkMap.getLightEngine();
         this.distanceManager = this.chunkMap.getDistanceManager();
         this.distanceManager.updateSimulationDistance(p_214989_);
+        this.hasMobSpawnCosts = p_214987_.getBiomeSource().possibleBiomes().stream().anyMatch(biome -> biome.value().getMobSettings().hasMobSpawnCosts());
+        this.emptyChunk = new EmptyLevelChunk(p_214982_, new ChunkPos(0, 0), p_214982_.registryAccess().lookupOrThrow(Registries.BIOME).getOrThrow(Biomes.PLAINS));
         this.clearCache();
     }
 
@@ -137,7 +147,9 @@ public class ServerChunkCache extends ChunkSource {
     @Nullable
     @Override
     public ChunkAccess getChunk(int p_8360_, int p_8361_, ChunkStatus p_334940_, boolean p_8363_) {
-        if (Thread.currentThread() != this.mainThread) {
+        if (RegionTickContext.inRegion()) {
+            return this.getChunkForRegionTick(p_8360_, p_8361_, p_334940_, p_8363_);
+        } else if (Thread.currentThread() != this.mainThread) {
             return CompletableFuture.<ChunkAccess>supplyAsync(() -> this.getChunk(p_8360_, p_8361_, p_334940_, p_8363_), this.mainThreadProcessor).join();
         } else {
             ProfilerFiller profilerfiller = Profiler.get();
@@ -244,6 +256,13 @@ public class ServerChunkCache extends ChunkSource {
         return this.chunkAbsent(chunkholder, j) ? GenerationChunkHolder.UNLOADED_CHUNK_FUTURE : chunkholder.scheduleChunkGenerationTask(p_334479_, this.chunkMap);
     }
 
+    @Nullable
+    private ChunkAccess getChunkForRegionTick(int x, int z, ChunkStatus status, boolean load) {
+        ChunkHolder chunkholder = this.getVisibleChunkIfPresent(ChunkPos.asLong(x, z));
+        ChunkAccess chunkaccess = chunkholder == null ? null : chunkholder.getChunkIfPresent(status);
+        return (ChunkAccess)(chunkaccess == null && load ? this.emptyChunk : chunkaccess);
+    }
+
     private boolean chunkAbsent(@Nullable ChunkHolder p_8417_, int p_8418_) {
         return p_8417_ == null || p_8417_.getTicketLevel() > p_8418_;
     }
@@ -379,9 +398,17 @@ public class ServerChunkCache extends ChunkSource {
     private void tickChunks(ProfilerFiller p_368327_, long p_362313_, List<LevelChunk> p_366274_) {
         p_368327_.popPush("naturalSpawnCount");
         int i = this.distanceManager.getNaturalSpawnChunkCount();
-        NaturalSpawner.SpawnState naturalspawner$spawnstate = NaturalSpawner.createState(
-            i, this.level.getAllEntities(), this::getFullChunk, new LocalMobCapCalculator(this.chunkMap)
-        );
+        NaturalSpawner.SpawnState naturalspawner$spawnstate;
+        if (this.hasMobSpawnCosts) {
+            naturalspawner$spawnstate = NaturalSpawner.createState(i, this.level.getAllEntities(), this::getFullChunk, new LocalMobCapCalculator(this.chunkMap));
+        } else {
+            if (this.level.getGameTime() % 200L == 0L) {
+                this.naturalSpawnCounter.rebuild(this.level.getAllEntities());
+            }
+
+            naturalspawner$spawnstate = this.naturalSpawnCounter.createState(i, new LocalMobCapCalculator(this.chunkMap));
+        }
+
         this.lastSpawnState = naturalspawner$spawnstate;
         p_368327_.popPush("spawnAndTick");
         boolean flag = this.level.getGameRules().getBoolean(GameRules.RULE_DOMOBSPAWNING);
@@ -458,6 +485,7 @@ public class ServerChunkCache extends ChunkSource {
     @Override
     public void onLightUpdate(LightLayer p_8403_, SectionPos p_8404_) {
         this.mainThreadProcessor.execute(() -> {
+            this.chunkMap.invalidateChunkPacket(p_8404_.chunk().toLong());
             ChunkHolder chunkholder = this.getVisibleChunkIfPresent(p_8404_.chunk().toLong());
             if (chunkholder != null && chunkholder.sectionLightChanged(p_8403_, p_8404_.y())) {
                 this.chunkHoldersToBroadcast.add(chunkholder);
@@ -486,10 +514,16 @@ public class ServerChunkCache extends ChunkSource {
 
     public void removeEntity(Entity p_8444_) {
         this.chunkMap.removeEntity(p_8444_);
+        this.naturalSpawnCounter.remove(p_8444_);
     }
 
     public void addEntity(Entity p_8464_) {
         this.chunkMap.addEntity(p_8464_);
+        this.naturalSpawnCounter.add(p_8464_);
+    }
+
+    public void moveEntity(Entity entity) {
+        this.naturalSpawnCounter.move(entity);
     }
 
     public void broadcastAndSend(Entity p_8395_, Packet<?> p_8396_) {
@@ -142,6 +142,7 @@ import net.minecraft.world.level.entity.EntityTypeTest;
 import net.minecraft.world.level.entity.LevelCallback;
 import net.minecraft.world.level.entity.LevelEntityGetter;
 import net.minecraft.world.level.entity.PersistentEntitySectionManager;
+import net.minecraft.world.level.entity.RegionTickContext;
 import net.minecraft.world.level.gameevent.DynamicGameEventListener;
 import net.minecraft.world.level.gameevent.GameEvent;
 import net.minecraft.world.level.gameevent.GameEventDispatcher;
@@ -149,6 +150,7 @@ import net.minecraft.world.level.levelgen.Heightmap;
 import net.minecraft.world.level.levelgen.structure.BoundingBox;
 import net.minecraft.world.level.levelgen.structure.Structure;
 import net.minecraft.world.level.levelgen.structure.StructureCheck;
+import net.minecraft.world.level.levelgen.structure.StructureStartIndex;
 import net.minecraft.world.level.levelgen.structure.templatesystem.StructureTemplateManager;
 import net.minecraft.world.level.material.Fluid;
 import net.minecraft.world.level.material.FluidState;
@@ -185,6 +187,8 @@ public class ServerLevel extends Level implements ServerEntityGetter, WorldGenLe
     private final ServerLevelData serverLevelData;
     private int lastSpawnChunkRadius;
     final EntityTickList entityTickList = new EntityTickList();
+    private final EntityRegionTicker entityRegionTicker = new EntityRegionTicker(this);
+    private final EntityActivationRange activationRange = new EntityActivationRange(this);
     private final PersistentEntitySectionManager<Entity> entityManager;
     private final GameEventDispatcher gameEventDispatcher;
     public boolean noSave;
@@ -278,7 +282,14 @@ public class ServerLevel extends Level implements ServerEntityGetter, WorldGenLe
             this,
             chunkgenerator.getBiomeSource(),
             i,
-            datafixer
+            datafixer,
+            this.getDataStorage()
+                .computeIfAbsent(
+                    StructureStartIndex.factory(
+                        this.registryAccess().lookupOrThrow(Registries.STRUCTURE), p_215001_.getDimensionPath(p_215003_).resolve("data").resolve("structure_starts")
+                    ),
+                    "structure_starts"
+                )
         );
         this.structureManager = new StructureManager(this, p_214999_.getWorldData().worldGenOptions(), this.structureCheck);
         if (this.dimension() == Level.END && this.dimensionTypeRegistration().is(BuiltinDimensionTypes.END)) {
@@ -383,6 +394,8 @@ public class ServerLevel extends Level implements ServerEntityGetter, WorldGenLe
                 profilerfiller.pop();
             }
 
+            this.activationRange.tick();
+            this.entityRegionTicker.startTick(this.entityTickList);
             this.entityTickList.forEach(p_358707_ -> {
                 if (!p_358707_.isRemoved()) {
                     if (!tickratemanager.isEntityFrozen(p_358707_)) {
@@ -399,13 +412,18 @@ public class ServerLevel extends Level implements ServerEntityGetter, WorldGenLe
                                 p_358707_.stopRiding();
                             }
 
-                            profilerfiller.push("tick");
-                            this.guardEntityTick(this::tickNonPassenger, p_358707_);
-                            profilerfiller.pop();
+                            if (!this.entityRegionTicker.offer(p_358707_)) {
+                                profilerfiller.push("tick");
+                                this.guardEntityTick(this::tickNonPassenger, p_358707_);
+                                profilerfiller.pop();
+                            }
                         }
                     }
                 }
             });
+            profilerfiller.push("regions");
+            this.entityRegionTicker.tickPending();
+            profilerfiller.pop();
             profilerfiller.pop();
             this.tickBlockEntities();
         }
@@ -733,6 +751,10 @@ public class ServerLevel extends Level implements ServerEntityGetter, WorldGenLe
         }
     }
 
+    public EntityActivationRange getActivationRange() {
+        return this.activationRange;
+    }
+
     public void tickNonPassenger(Entity p_8648_) {
         p_8648_.setOldPosAndRot();
         ProfilerFiller profilerfiller = Profiler.get();
@@ -897,7 +919,7 @@ public class ServerLevel extends Level implements ServerEntityGetter, WorldGenLe
             LOGGER.warn("Tried to add entity {} but it was marked as removed already", EntityType.getKey(p_8873_.getType()));
             return false;
         } else {
-            return this.entityManager.addNewEntity(p_8873_);
+            return RegionTickContext.defer(() -> this.addEntity(p_8873_)) || this.entityManager.addNewEntity(p_8873_);
         }
     }
 
@@ -945,34 +967,40 @@ public class ServerLevel extends Level implements ServerEntityGetter, WorldGenLe
         float p_263390_,
         long p_263403_
     ) {
-        this.server
-            .getPlayerList()
-            .broadcast(
-                p_263330_,
-                p_263393_,
-                p_263369_,
-                p_263354_,
-                (double)p_263412_.value().getRange(p_263352_),
-                this.dimension(),
-                new ClientboundSoundPacket(p_263412_, p_263338_, p_263393_, p_263369_, p_263354_, p_263352_, p_263390_, p_263403_)
-            );
+        if (!RegionTickContext.defer(
+            () -> this.playSeededSound(p_263330_, p_263393_, p_263369_, p_263354_, p_263412_, p_263338_, p_263352_, p_263390_, p_263403_)
+        )) {
+            this.server
+                .getPlayerList()
+                .broadcast(
+                    p_263330_,
+                    p_263393_,
+                    p_263369_,
+                    p_263354_,
+                    (double)p_263412_.value().getRange(p_263352_),
+                    this.dimension(),
+                    new ClientboundSoundPacket(p_263412_, p_263338_, p_263393_, p_263369_, p_263354_, p_263352_, p_263390_, p_263403_)
+                );
+        }
     }
 
     @Override
     public void playSeededSound(
         @Nullable Player p_263545_, Entity p_263544_, Holder<SoundEvent> p_263491_, SoundSource p_263542_, float p_263530_, float p_263520_, long p_263490_
     ) {
-        this.server
-            .getPlayerList()
-            .broadcast(
-                p_263545_,
-                p_263544_.getX(),
-                p_263544_.getY(),
-                p_263544_.getZ(),
-                (double)p_263491_.value().getRange(p_263530_),
-                this.dimension(),
-                new ClientboundSoundEntityPacket(p_263491_, p_263542_, p_263544_, p_263530_, p_263520_, p_263490_)
-            );
+        if (!RegionTickContext.defer(() -> this.playSeededSound(p_263545_, p_263544_, p_263491_, p_263542_, p_263530_, p_263520_, p_263490_))) {
+            this.server
+                .getPlayerList()
+                .broadcast(
+                    p_263545_,
+                    p_263544_.getX(),
+                    p_263544_.getY(),
+                    p_263544_.getZ(),
+                    (double)p_263491_.value().getRange(p_263530_),
+                    this.dimension(),
+                    new ClientboundSoundEntityPacket(p_263491_, p_263542_, p_263544_, p_263530_, p_263520_, p_263490_)
+                );
+        }
     }
 
     @Override
@@ -1001,17 +1029,19 @@ public class ServerLevel extends Level implements ServerEntityGetter, WorldGenLe
 
     @Override
     public void levelEvent(@Nullable Player p_8684_, int p_8685_, BlockPos p_8686_, int p_8687_) {
-        this.server
-            .getPlayerList()
-            .broadcast(
-                p_8684_,
-                (double)p_8686_.getX(),
-                (double)p_8686_.getY(),
-                (double)p_8686_.getZ(),
-                64.0,
-                this.dimension(),
-                new ClientboundLevelEventPacket(p_8685_, p_8686_, p_8687_, false)
-            );
+        if (!RegionTickContext.defer(() -> this.levelEvent(p_8684_, p_8685_, p_8686_, p_8687_))) {
+            this.server
+                .getPlayerList()
+                .broadcast(
+                    p_8684_,
+                    (double)p_8686_.getX(),
+                    (double)p_8686_.getY(),
+                    (double)p_8686_.getZ(),
+                    64.0,
+                    this.dimension(),
+                    new ClientboundLevelEventPacket(p_8685_, p_8686_, p_8687_, false)
+                );
+        }
     }
 
     public int getLogicalHeight() {
@@ -1020,7 +1050,9 @@ public class ServerLevel extends Level implements ServerEntityGetter, WorldGenLe
 
     @Override
     public void gameEvent(Holder<GameEvent> p_334475_, Vec3 p_215042_, GameEvent.Context p_215043_) {
-        this.gameEventDispatcher.post(p_334475_, p_215042_, p_215043_);
+        if (!RegionTickContext.defer(() -> this.gameEvent(p_334475_, p_215042_, p_215043_))) {
+            this.gameEventDispatcher.post(p_334475_, p_215042_, p_215043_);
+        }
     }
 
     @Override
@@ -1083,12 +1115,16 @@ public class ServerLevel extends Level implements ServerEntityGetter, WorldGenLe
 
     @Override
     public void broadcastEntityEvent(Entity p_8650_, byte p_8651_) {
-        this.getChunkSource().broadcastAndSend(p_8650_, new ClientboundEntityEventPacket(p_8650_, p_8651_));
+        if (!RegionTickContext.defer(() -> this.broadcastEntityEvent(p_8650_, p_8651_))) {
+            this.getChunkSource().broadcastAndSend(p_8650_, new ClientboundEntityEventPacket(p_8650_, p_8651_));
+        }
     }
 
     @Override
     public void broadcastDamageEvent(Entity p_270420_, DamageSource p_270311_) {
-        this.getChunkSource().broadcastAndSend(p_270420_, new ClientboundDamageEventPacket(p_270420_, p_270311_));
+        if (!RegionTickContext.defer(() -> this.broadcastDamageEvent(p_270420_, p_270311_))) {
+            this.getChunkSource().broadcastAndSend(p_270420_, new ClientboundDamageEventPacket(p_270420_, p_270311_));
+        }
     }
 
     public ServerChunkCache getChunkSource() {
@@ -1214,6 +1250,10 @@ public class ServerLevel extends Level implements ServerEntityGetter, WorldGenLe
         double p_8634_,
         double p_8635_
     ) {
+        if (RegionTickContext.defer(() -> this.sendParticles(p_8626_, p_8627_, p_378427_, p_8628_, p_8629_, p_8630_, p_8631_, p_8632_, p_8633_, p_8634_, p_8635_))) {
+            return 0;
+        }
+
         ClientboundLevelParticlesPacket clientboundlevelparticlespacket = new ClientboundLevelParticlesPacket(
             p_8626_, p_8627_, p_378427_, p_8628_, p_8629_, p_8630_, (float)p_8632_, (float)p_8633_, (float)p_8634_, (float)p_8635_, p_8631_
         );
@@ -1785,6 +1825,7 @@ public class ServerLevel extends Level implements ServerEntityGetter, WorldGenLe
         }
 
         public void onSectionChange(Entity p_215086_) {
+            ServerLevel.this.getChunkSource().moveEntity(p_215086_);
             p_215086_.updateDynamicGameEventListener(DynamicGameEventListener::move);
         }
     }
@@ -0,0 +1,148 @@
+package net.minecraft.server.level;
+
+import java.util.concurrent.Executor;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+import javax.annotation.Nullable;
+import net.minecraft.util.Mth;
+import net.minecraft.util.thread.TaskScheduler;
+import net.minecraft.world.level.ChunkPos;
+
+public class ShardedChunkTaskDispatcher implements ChunkHolder.LevelChangeListener, AutoCloseable {
+    private static volatile int configuredShards;
+    private final ShardedChunkTaskDispatcher.Shard[] shards;
+
+    public ShardedChunkTaskDispatcher(TaskScheduler<Runnable> executor, Executor dispatchExecutor) {
+        this(executor, dispatchExecutor, getShardCount());
+    }
+
+    public ShardedChunkTaskDispatcher(TaskScheduler<Runnable> executor, Executor dispatchExecutor, int shards) {
+        this.shards = new ShardedChunkTaskDispatcher.Shard[Math.max(1, shards)];
+
+        for (int i = 0; i < this.shards.length; i++) {
+            this.shards[i] = new ShardedChunkTaskDispatcher.Shard(this, executor, dispatchExecutor);
+        }
+    }
+
+    public static void configure(int shards) {
+        configuredShards = shards;
+    }
+
+    private static int getShardCount() {
+        int i = configuredShards;
+        return i > 0 ? i : Mth.clamp(Runtime.getRuntime().availableProcessors() / 2, 1, 8);
+    }
+
+    private ShardedChunkTaskDispatcher.Shard shardFor(long chunkPos) {
+        if (this.shards.length == 1) {
+            return this.shards[0];
+        } else {
+            int i = ChunkPos.getX(chunkPos) >> 5;
+            int j = ChunkPos.getZ(chunkPos) >> 5;
+            return this.shards[Math.floorMod(Mth.murmurHash3Mixer(i * 31 + j), this.shards.length)];
+        }
+    }
+
+    public boolean hasWork() {
+        for (ShardedChunkTaskDispatcher.Shard shardedchunktaskdispatcher$shard : this.shards) {
+            if (shardedchunktaskdispatcher$shard.hasWork()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public void onLevelChange(ChunkPos p_368881_, IntSupplier p_362965_, int p_369655_, IntConsumer p_365320_) {
+        this.shardFor(p_368881_.toLong()).onLevelChange(p_368881_, p_362965_, p_369655_, p_365320_);
+    }
+
+    public void release(long chunkPos, Runnable task, boolean clearQueue) {
+        this.shardFor(chunkPos).release(chunkPos, task, clearQueue);
+    }
+
+    public void submit(Runnable task, long chunkPos, IntSupplier level) {
+        ShardedChunkTaskDispatcher.Shard shardedchunktaskdispatcher$shard = this.shardFor(chunkPos);
+        shardedchunktaskdispatcher$shard.submit(task, chunkPos, level);
+        if (!shardedchunktaskdispatcher$shard.sleeping) {
+            for (ShardedChunkTaskDispatcher.Shard shardedchunktaskdispatcher$shard1 : this.shards) {
+                if (shardedchunktaskdispatcher$shard1 != shardedchunktaskdispatcher$shard
+                    && shardedchunktaskdispatcher$shard1.sleeping
+                    && !shardedchunktaskdispatcher$shard1.stealing) {
+                    shardedchunktaskdispatcher$shard1.scheduleDispatch(3, () -> this.steal(shardedchunktaskdispatcher$shard1));
+                    break;
+                }
+            }
+        }
+    }
+
+    void steal(ShardedChunkTaskDispatcher.Shard thief) {
+        if (thief.sleeping && !thief.stealing) {
+            ShardedChunkTaskDispatcher.Shard shardedchunktaskdispatcher$shard = null;
+            int i = ChunkTaskPriorityQueue.PRIORITY_LEVEL_COUNT;
+
+            for (ShardedChunkTaskDispatcher.Shard shardedchunktaskdispatcher$shard1 : this.shards) {
+                int j = shardedchunktaskdispatcher$shard1.getTopPriority();
+                if (shardedchunktaskdispatcher$shard1 != thief && j < i) {
+                    shardedchunktaskdispatcher$shard = shardedchunktaskdispatcher$shard1;
+                    i = j;
+                }
+            }
+
+            if (shardedchunktaskdispatcher$shard != null) {
+                ShardedChunkTaskDispatcher.Shard shardedchunktaskdispatcher$shard2 = shardedchunktaskdispatcher$shard;
+                thief.stealing = true;
+                shardedchunktaskdispatcher$shard2.scheduleDispatch(3, () -> {
+                    ChunkTaskPriorityQueue.TasksForChunk chunktaskpriorityqueue$tasksforchunk = shardedchunktaskdispatcher$shard2.popOwnTasks();
+                    thief.scheduleDispatch(3, () -> thief.adopt(chunktaskpriorityqueue$tasksforchunk));
+                });
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        for (ShardedChunkTaskDispatcher.Shard shardedchunktaskdispatcher$shard : this.shards) {
+            shardedchunktaskdispatcher$shard.close();
+        }
+    }
+
+    static class Shard extends ChunkTaskDispatcher {
+        private final ShardedChunkTaskDispatcher owner;
+        volatile boolean stealing;
+
+        Shard(ShardedChunkTaskDispatcher owner, TaskScheduler<Runnable> executor, Executor dispatchExecutor) {
+            super(executor, dispatchExecutor);
+            this.owner = owner;
+        }
+
+        @Nullable
+        @Override
+        protected ChunkTaskPriorityQueue.TasksForChunk popTasks() {
+            ChunkTaskPriorityQueue.TasksForChunk chunktaskpriorityqueue$tasksforchunk = super.popTasks();
+            if (chunktaskpriorityqueue$tasksforchunk == null && this.owner.shards.length > 1) {
+                this.scheduleDispatch(3, () -> this.owner.steal(this));
+            }
+
+            return chunktaskpriorityqueue$tasksforchunk;
+        }
+
+        @Nullable
+        ChunkTaskPriorityQueue.TasksForChunk popOwnTasks() {
+            return super.popTasks();
+        }
+
+        void adopt(@Nullable ChunkTaskPriorityQueue.TasksForChunk tasks) {
+            this.stealing = false;
+            if (tasks != null) {
+                if (this.sleeping) {
+                    this.sleeping = false;
+                    this.scheduleForExecution(tasks);
+                } else {
+                    this.runTasks(tasks);
+                }
+            }
+        }
+    }
+}
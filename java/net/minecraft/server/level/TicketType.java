@@ -17,6 +17,7 @@ public class TicketType<T> {
     public static final TicketType<BlockPos> PORTAL = create("portal", Vec3i::compareTo, 300);
     public static final TicketType<ChunkPos> ENDER_PEARL = create("ender_pearl", Comparator.comparingLong(ChunkPos::toLong), 40);
     public static final TicketType<ChunkPos> UNKNOWN = create("unknown", Comparator.comparingLong(ChunkPos::toLong), 1);
+    public static final TicketType<ChunkPos> PREGENERATION = create("pregeneration", Comparator.comparingLong(ChunkPos::toLong));
 
     public static <T> TicketType<T> create(String p_9463_, Comparator<T> p_9464_) {
         return new TicketType<>(p_9463_, p_9464_, 0L);
@@ -10,7 +10,6 @@ import java.util.Objects;
 import net.minecraft.network.protocol.game.ClientboundChunkBatchFinishedPacket;
 import net.minecraft.network.protocol.game.ClientboundChunkBatchStartPacket;
 import net.minecraft.network.protocol.game.ClientboundForgetLevelChunkPacket;
-import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
 import net.minecraft.network.protocol.game.DebugPackets;
 import net.minecraft.server.level.ChunkMap;
 import net.minecraft.server.level.ServerLevel;
@@ -74,7 +73,7 @@ public class PlayerChunkSender {
     }
 
     private static void sendChunk(ServerGamePacketListenerImpl p_299748_, ServerLevel p_298120_, LevelChunk p_297712_) {
-        p_299748_.send(new ClientboundLevelChunkWithLightPacket(p_297712_, p_298120_.getLightEngine(), null, null));
+        p_299748_.send(p_298120_.getChunkSource().chunkMap.getChunkPacket(p_297712_));
         ChunkPos chunkpos = p_297712_.getPos();
         DebugPackets.sendPoiPacketsForChunk(p_298120_, chunkpos);
     }
@@ -10,6 +10,7 @@ import net.minecraft.Util;
 import net.minecraft.network.Connection;
 import net.minecraft.network.DisconnectionDetails;
 import net.minecraft.network.PacketSendListener;
+import net.minecraft.network.SharedPacket;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.PacketUtils;
@@ -148,6 +149,19 @@ public abstract class ServerCommonPacketListenerImpl implements ServerCommonPack
         this.send(p_300558_, null);
     }
 
+    public void send(SharedPacket sharedPacket) {
+        boolean flag = !this.suspendFlushingOnServerThread || !this.server.isSameThread();
+
+        try {
+            this.connection.send(sharedPacket, flag);
+        } catch (Throwable throwable) {
+            CrashReport crashreport = CrashReport.forThrowable(throwable, "Sending packet");
+            CrashReportCategory crashreportcategory = crashreport.addCategory("Packet being sent");
+            crashreportcategory.setDetail("Packet class", () -> sharedPacket.packet().getClass().getCanonicalName());
+            throw new ReportedException(crashreport);
+        }
+    }
+
     public void send(Packet<?> p_300325_, @Nullable PacketSendListener p_301165_) {
         if (p_300325_.isTerminal()) {
             this.close();
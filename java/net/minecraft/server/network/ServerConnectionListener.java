@@ -1,6 +1,7 @@
 package net.minecraft.server.network;
 
 import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.mojang.logging.LogUtils;
@@ -34,6 +35,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
 import javax.annotation.Nullable;
 import net.minecraft.CrashReport;
 import net.minecraft.ReportedException;
@@ -44,9 +46,13 @@ import net.minecraft.network.chat.Component;
 import net.minecraft.network.protocol.PacketFlow;
 import net.minecraft.network.protocol.common.ClientboundDisconnectPacket;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.profiling.metrics.MetricCategory;
+import net.minecraft.util.profiling.metrics.MetricSampler;
+import net.minecraft.util.profiling.metrics.MetricsRegistry;
+import net.minecraft.util.profiling.metrics.ProfilerMeasured;
 import org.slf4j.Logger;
 
-public class ServerConnectionListener {
+public class ServerConnectionListener implements ProfilerMeasured {
     private static final Logger LOGGER = LogUtils.getLogger();
     public static final Supplier<NioEventLoopGroup> SERVER_EVENT_GROUP = Suppliers.memoize(
         () -> new NioEventLoopGroup(0, new ThreadFactoryBuilder().setNameFormat("Netty Server IO #%d").setDaemon(true).build())
@@ -62,6 +68,7 @@ public class ServerConnectionListener {
     public ServerConnectionListener(MinecraftServer p_9707_) {
         this.server = p_9707_;
         this.running = true;
+        MetricsRegistry.INSTANCE.add(this);
     }
 
     public void startTcpServerListener(@Nullable InetAddress p_9712_, int p_9713_) throws IOException {
@@ -173,6 +180,31 @@ public class ServerConnectionListener {
         return this.connections;
     }
 
+    @Override
+    public List<MetricSampler> profiledMetrics() {
+        return ImmutableList.of(
+            MetricSampler.create("connection-flushes-per-second", MetricCategory.NETWORK, () -> this.sumConnections(connection -> (double)connection.getAverageFlushes())),
+            MetricSampler.create("connection-bytes-per-flush", MetricCategory.NETWORK, () -> this.averageBytesPerFlush()),
+            MetricSampler.create("connection-queued-bytes", MetricCategory.NETWORK, () -> this.sumConnections(connection -> (double)connection.getQueuedWriteBytes()))
+        );
+    }
+
+    private double sumConnections(ToDoubleFunction<Connection> metric) {
+        double d0 = 0.0;
+        synchronized (this.connections) {
+            for (Connection connection : this.connections) {
+                d0 += metric.applyAsDouble(connection);
+            }
+        }
+
+        return d0;
+    }
+
+    private double averageBytesPerFlush() {
+        double d0 = this.sumConnections(connection -> (double)connection.getAverageFlushes());
+        return d0 > 0.0 ? this.sumConnections(connection -> (double)(connection.getAverageFlushes() * connection.getAverageBytesPerFlush())) / d0 : 0.0;
+    }
+
     static class LatencySimulator extends ChannelInboundHandlerAdapter {
         private static final Timer TIMER = new HashedWheelTimer();
         private final int delay;
@@ -1,5 +1,6 @@
 package net.minecraft.server.network;
 
+import net.minecraft.network.SharedPacket;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.server.level.ServerPlayer;
 
@@ -7,4 +8,8 @@ public interface ServerPlayerConnection {
     ServerPlayer getPlayer();
 
     void send(Packet<?> p_143702_);
+
+    default void send(SharedPacket sharedPacket) {
+        this.send(sharedPacket.packet());
+    }
 }
\ No newline at end of file
@@ -29,6 +29,7 @@ import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.NbtOps;
 import net.minecraft.network.Connection;
 import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.SharedPacket;
 import net.minecraft.network.chat.ChatType;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.MutableComponent;
@@ -491,15 +492,37 @@ public abstract class PlayerList {
     }
 
     public void broadcastAll(Packet<?> p_11269_) {
-        for (ServerPlayer serverplayer : this.players) {
-            serverplayer.connection.send(p_11269_);
+        if (this.players.size() > 1 && SharedPacket.canShare(p_11269_)) {
+            SharedPacket sharedpacket = new SharedPacket(p_11269_);
+
+            for (ServerPlayer serverplayer1 : this.players) {
+                serverplayer1.connection.send(sharedpacket);
+            }
+
+            sharedpacket.release();
+        } else {
+            for (ServerPlayer serverplayer : this.players) {
+                serverplayer.connection.send(p_11269_);
+            }
         }
     }
 
     public void broadcastAll(Packet<?> p_11271_, ResourceKey<Level> p_11272_) {
-        for (ServerPlayer serverplayer : this.players) {
-            if (serverplayer.level().dimension() == p_11272_) {
-                serverplayer.connection.send(p_11271_);
+        if (this.players.size() > 1 && SharedPacket.canShare(p_11271_)) {
+            SharedPacket sharedpacket = new SharedPacket(p_11271_);
+
+            for (ServerPlayer serverplayer1 : this.players) {
+                if (serverplayer1.level().dimension() == p_11272_) {
+                    serverplayer1.connection.send(sharedpacket);
+                }
+            }
+
+            sharedpacket.release();
+        } else {
+            for (ServerPlayer serverplayer : this.players) {
+                if (serverplayer.level().dimension() == p_11272_) {
+                    serverplayer.connection.send(p_11271_);
+                }
             }
         }
     }
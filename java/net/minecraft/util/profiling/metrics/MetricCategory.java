@@ -8,6 +8,8 @@ public enum MetricCategory {
     JVM("jvm"),
     CHUNK_RENDERING("chunk rendering"),
     CHUNK_RENDERING_DISPATCHING("chunk rendering dispatching"),
+    CHUNK_IO("chunk io"),
+    NETWORK("network"),
     CPU("cpu"),
     GPU("gpu");
 
@@ -379,7 +379,7 @@ public class WorldUpgrader implements AutoCloseable {
                         this.previousWriteFuture.join();
                     }
 
-                    this.previousWriteFuture = p_330540_.write(p_331086_, () -> compoundtag1);
+                    this.previousWriteFuture = p_330540_.write(p_331086_, CompletableFuture.completedFuture(compoundtag1));
                     return true;
                 }
             }
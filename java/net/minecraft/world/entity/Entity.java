@@ -113,6 +113,7 @@ import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.border.WorldBorder;
 import net.minecraft.world.level.entity.EntityAccess;
 import net.minecraft.world.level.entity.EntityInLevelCallback;
+import net.minecraft.world.level.entity.RegionTickContext;
 import net.minecraft.world.level.gameevent.DynamicGameEventListener;
 import net.minecraft.world.level.gameevent.GameEvent;
 import net.minecraft.world.level.levelgen.Heightmap;
@@ -761,7 +762,7 @@ public abstract class Entity implements SyncedDataHolder, Nameable, EntityAccess
     }
 
     public void applyEffectsFromBlocks(Vec3 p_367330_, Vec3 p_363556_) {
-        if (this.isAffectedByBlocks()) {
+        if (this.isAffectedByBlocks() && !RegionTickContext.defer(() -> this.applyEffectsFromBlocks(p_367330_, p_363556_))) {
             if (this.onGround()) {
                 BlockPos blockpos = this.getOnPosLegacy();
                 BlockState blockstate = this.level().getBlockState(blockpos);
@@ -1253,7 +1254,11 @@ public abstract class Entity implements SyncedDataHolder, Nameable, EntityAccess
     protected void checkFallDamage(double p_19911_, boolean p_19912_, BlockState p_19913_, BlockPos p_19914_) {
         if (p_19912_) {
             if (this.fallDistance > 0.0F) {
-                p_19913_.getBlock().fallOn(this.level(), p_19913_, p_19914_, this, this.fallDistance);
+                float f = this.fallDistance;
+                if (!RegionTickContext.defer(() -> p_19913_.getBlock().fallOn(this.level(), p_19913_, p_19914_, this, f))) {
+                    p_19913_.getBlock().fallOn(this.level(), p_19913_, p_19914_, this, f);
+                }
+
                 this.level()
                     .gameEvent(
                         GameEvent.HIT_GROUND,
@@ -3643,6 +3648,10 @@ public abstract class Entity implements SyncedDataHolder, Nameable, EntityAccess
         return false;
     }
 
+    public boolean canTickInRegion() {
+        return false;
+    }
+
     public boolean mayInteract(ServerLevel p_366970_, BlockPos p_146844_) {
         return true;
     }
@@ -126,6 +126,11 @@ public class ExperienceOrb extends Entity {
         }
     }
 
+    @Override
+    public boolean canTickInRegion() {
+        return true;
+    }
+
     @Override
     public BlockPos getBlockPosBelowThatAffectsMyMovement() {
         return this.getOnPos(0.999999F);
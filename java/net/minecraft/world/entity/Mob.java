@@ -726,6 +726,13 @@ public abstract class Mob extends LivingEntity implements EquipmentUser, Leashab
     @Override
     protected final void serverAiStep() {
         this.noActionTime++;
+        if (this.level() instanceof ServerLevel serverlevel && !serverlevel.getActivationRange().shouldRunAi(this)) {
+            this.setXxa(0.0F);
+            this.setZza(0.0F);
+            this.setJumping(false);
+            return;
+        }
+
         ProfilerFiller profilerfiller = Profiler.get();
         profilerfiller.push("sensing");
         this.sensing.tick();
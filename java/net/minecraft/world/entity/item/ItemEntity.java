@@ -192,6 +192,11 @@ public class ItemEntity extends Entity implements TraceableEntity {
         }
     }
 
+    @Override
+    public boolean canTickInRegion() {
+        return true;
+    }
+
     @Override
     public BlockPos getBlockPosBelowThatAffectsMyMovement() {
         return this.getOnPos(0.999999F);
@@ -30,6 +30,12 @@ public class LocalMobCapCalculator {
         }
     }
 
+    public void addMobs(ChunkPos chunkPos, MobCategory category, int count) {
+        for (ServerPlayer serverplayer : this.getPlayersNear(chunkPos)) {
+            this.playerMobCounts.computeIfAbsent(serverplayer, player -> new LocalMobCapCalculator.MobCounts()).add(category, count);
+        }
+    }
+
     public boolean canSpawn(MobCategory p_186505_, ChunkPos p_186506_) {
         for (ServerPlayer serverplayer : this.getPlayersNear(p_186506_)) {
             LocalMobCapCalculator.MobCounts localmobcapcalculator$mobcounts = this.playerMobCounts.get(serverplayer);
@@ -48,6 +54,10 @@ public class LocalMobCapCalculator {
             this.counts.computeInt(p_186518_, (p_186520_, p_186521_) -> p_186521_ == null ? 1 : p_186521_ + 1);
         }
 
+        public void add(MobCategory category, int count) {
+            this.counts.mergeInt(category, count, Integer::sum);
+        }
+
         public boolean canSpawn(MobCategory p_186523_) {
             return this.counts.getOrDefault(p_186523_, 0) < p_186523_.getMaxInstancesPerChunk();
         }
@@ -0,0 +1,111 @@
+package net.minecraft.world.level;
+
+import it.unimi.dsi.fastutil.ints.Int2LongMap;
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.MobCategory;
+
+public class NaturalSpawnCounter {
+    private static final MobCategory[] CATEGORIES = MobCategory.values();
+    private final Int2LongMap countedChunks = new Int2LongOpenHashMap();
+    private final Long2ObjectMap<int[]> mobsPerChunk = new Long2ObjectOpenHashMap<>();
+    private final int[] counts = new int[CATEGORIES.length];
+
+    public NaturalSpawnCounter() {
+        this.countedChunks.defaultReturnValue(ChunkPos.INVALID_CHUNK_POS);
+    }
+
+    private static boolean isCounted(Entity entity) {
+        if (entity instanceof Mob mob && (mob.isPersistenceRequired() || mob.requiresCustomPersistence())) {
+            return false;
+        } else {
+            return entity.getType().getCategory() != MobCategory.MISC;
+        }
+    }
+
+    public void add(Entity entity) {
+        if (isCounted(entity) && !this.countedChunks.containsKey(entity.getId())) {
+            long i = entity.chunkPosition().toLong();
+            this.countedChunks.put(entity.getId(), i);
+            this.change(entity, i, 1);
+        }
+    }
+
+    public void remove(Entity entity) {
+        long i = this.countedChunks.remove(entity.getId());
+        if (i != ChunkPos.INVALID_CHUNK_POS) {
+            this.change(entity, i, -1);
+        }
+    }
+
+    public void move(Entity entity) {
+        long i = this.countedChunks.get(entity.getId());
+        long j = entity.chunkPosition().toLong();
+        if (i != ChunkPos.INVALID_CHUNK_POS && i != j) {
+            this.countedChunks.put(entity.getId(), j);
+            this.change(entity, i, -1);
+            this.change(entity, j, 1);
+        }
+    }
+
+    private void change(Entity entity, long chunkPos, int amount) {
+        int i = entity.getType().getCategory().ordinal();
+        this.counts[i] += amount;
+        if (entity instanceof Mob) {
+            int[] aint = this.mobsPerChunk.get(chunkPos);
+            if (aint == null) {
+                aint = new int[CATEGORIES.length + 1];
+                this.mobsPerChunk.put(chunkPos, aint);
+            }
+
+            aint[i] += amount;
+            aint[CATEGORIES.length] += amount;
+            if (aint[CATEGORIES.length] <= 0) {
+                this.mobsPerChunk.remove(chunkPos);
+            }
+        }
+    }
+
+    public void rebuild(Iterable<Entity> entities) {
+        this.countedChunks.clear();
+        this.mobsPerChunk.clear();
+
+        for (int i = 0; i < this.counts.length; i++) {
+            this.counts[i] = 0;
+        }
+
+        for (Entity entity : entities) {
+            this.add(entity);
+        }
+    }
+
+    public NaturalSpawner.SpawnState createState(int spawnableChunkCount, LocalMobCapCalculator calculator) {
+        Object2IntOpenHashMap<MobCategory> object2intopenhashmap = new Object2IntOpenHashMap<>();
+
+        for (MobCategory mobcategory : CATEGORIES) {
+            int i = this.counts[mobcategory.ordinal()];
+            if (i > 0) {
+                object2intopenhashmap.put(mobcategory, i);
+            }
+        }
+
+        for (Long2ObjectMap.Entry<int[]> entry : Long2ObjectMaps.fastIterable(this.mobsPerChunk)) {
+            ChunkPos chunkpos = new ChunkPos(entry.getLongKey());
+            int[] aint = entry.getValue();
+
+            for (MobCategory mobcategory1 : CATEGORIES) {
+                int j = aint[mobcategory1.ordinal()];
+                if (j > 0) {
+                    calculator.addMobs(chunkpos, mobcategory1, j);
+                }
+            }
+        }
+
+        return new NaturalSpawner.SpawnState(spawnableChunkCount, object2intopenhashmap, new PotentialCalculator(), calculator);
+    }
+}
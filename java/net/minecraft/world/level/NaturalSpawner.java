@@ -15,6 +15,7 @@ import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.core.Holder;
 import net.minecraft.core.QuartPos;
+import net.minecraft.core.SectionPos;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.server.level.ServerLevel;
@@ -32,6 +33,7 @@ import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.Mob;
 import net.minecraft.world.entity.MobCategory;
 import net.minecraft.world.entity.SpawnGroupData;
+import net.minecraft.world.entity.SpawnPlacementTypes;
 import net.minecraft.world.entity.SpawnPlacements;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.biome.Biome;
@@ -169,6 +171,10 @@ public final class NaturalSpawner {
                     l += p_47040_.random.nextInt(6) - p_47040_.random.nextInt(6);
                     i1 += p_47040_.random.nextInt(6) - p_47040_.random.nextInt(6);
                     blockpos$mutableblockpos.set(l, i, i1);
+                    if (mobspawnsettings$spawnerdata != null && !isPossibleSpawnPosition(p_47040_, mobspawnsettings$spawnerdata.type, blockpos$mutableblockpos)) {
+                        continue;
+                    }
+
                     double d0 = (double)l + 0.5;
                     double d1 = (double)i1 + 0.5;
                     Player player = p_47040_.getNearestPlayer(d0, (double)i, d1, -1.0, false);
@@ -243,9 +249,9 @@ public final class NaturalSpawner {
             return false;
         } else if (!entitytype.canSpawnFarFromPlayer() && p_220428_ > (double)(entitytype.getCategory().getDespawnDistance() * entitytype.getCategory().getDespawnDistance())) {
             return false;
-        } else if (!entitytype.canSummon() || !canSpawnMobAt(p_220422_, p_220424_, p_220425_, p_220423_, p_220426_, p_220427_)) {
+        } else if (!entitytype.canSummon() || !SpawnPlacements.isSpawnPositionOk(entitytype, p_220422_, p_220427_)) {
             return false;
-        } else if (!SpawnPlacements.isSpawnPositionOk(entitytype, p_220422_, p_220427_)) {
+        } else if (!canSpawnMobAt(p_220422_, p_220424_, p_220425_, p_220423_, p_220426_, p_220427_)) {
             return false;
         } else {
             return !SpawnPlacements.checkSpawnRules(entitytype, p_220422_, EntitySpawnReason.NATURAL, p_220427_, p_220422_.random)
@@ -256,6 +262,17 @@ public final class NaturalSpawner {
         }
     }
 
+    private static boolean isPossibleSpawnPosition(ServerLevel level, EntityType<?> type, BlockPos pos) {
+        LevelChunk levelchunk = level.getChunkSource().getChunkNow(SectionPos.blockToSectionCoord(pos.getX()), SectionPos.blockToSectionCoord(pos.getZ()));
+        if (levelchunk == null || SpawnPlacements.getPlacementType(type) != SpawnPlacementTypes.ON_GROUND) {
+            return true;
+        } else if (pos.getY() > levelchunk.getHeight(Heightmap.Types.WORLD_SURFACE, pos.getX(), pos.getZ()) + 1) {
+            return false;
+        } else {
+            return !levelchunk.getBlockState(pos).isCollisionShapeFullBlock(level, pos);
+        }
+    }
+
     @Nullable
     private static Mob getMobForSpawn(ServerLevel p_46989_, EntityType<?> p_46990_) {
         try {
@@ -35,6 +35,9 @@ public abstract class BiomeSource implements BiomeResolver {
 
     protected abstract Stream<Holder<Biome>> collectPossibleBiomes();
 
+    public void enableLookupCache(Climate.Sampler sampler) {
+    }
+
     public Set<Holder<Biome>> possibleBiomes() {
         return this.possibleBiomes.get();
     }
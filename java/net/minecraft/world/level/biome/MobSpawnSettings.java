@@ -64,6 +64,10 @@ public class MobSpawnSettings {
         return this.spawners.getOrDefault(p_151799_, EMPTY_MOB_LIST);
     }
 
+    public boolean hasMobSpawnCosts() {
+        return !this.mobSpawnCosts.isEmpty();
+    }
+
     @Nullable
     public MobSpawnSettings.MobSpawnCost getMobSpawnCost(EntityType<?> p_48346_) {
         return this.mobSpawnCosts.get(p_48346_);
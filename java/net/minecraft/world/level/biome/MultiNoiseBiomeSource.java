@@ -5,13 +5,18 @@ import com.mojang.datafixers.util.Pair;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.Lifecycle;
 import com.mojang.serialization.MapCodec;
+import it.unimi.dsi.fastutil.HashCommon;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Stream;
+import javax.annotation.Nullable;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Holder;
 import net.minecraft.core.QuartPos;
 import net.minecraft.resources.ResourceKey;
+import net.minecraft.util.Mth;
 import net.minecraft.util.VisibleForDebug;
 import net.minecraft.world.level.levelgen.NoiseRouterData;
 
@@ -23,7 +28,10 @@ public class MultiNoiseBiomeSource extends BiomeSource {
         .withLifecycle(Lifecycle.stable());
     public static final MapCodec<MultiNoiseBiomeSource> CODEC = Codec.mapEither(DIRECT_CODEC, PRESET_CODEC)
         .xmap(MultiNoiseBiomeSource::new, p_275170_ -> p_275170_.parameters);
+    private static volatile int lookupCacheSize = 16384;
     private final Either<Climate.ParameterList<Holder<Biome>>, Holder<MultiNoiseBiomeSourceParameterList>> parameters;
+    @Nullable
+    private volatile MultiNoiseBiomeSource.LookupCache lookupCache;
 
     private MultiNoiseBiomeSource(Either<Climate.ParameterList<Holder<Biome>>, Holder<MultiNoiseBiomeSourceParameterList>> p_275370_) {
         this.parameters = p_275370_;
@@ -37,6 +45,16 @@ public class MultiNoiseBiomeSource extends BiomeSource {
         return new MultiNoiseBiomeSource(Either.right(p_275250_));
     }
 
+    public static void configureLookupCache(int entries) {
+        lookupCacheSize = Math.max(0, entries);
+    }
+
+    @Override
+    public void enableLookupCache(Climate.Sampler p_362907_) {
+        int i = lookupCacheSize;
+        this.lookupCache = i > 0 ? new MultiNoiseBiomeSource.LookupCache(p_362907_, Mth.smallestEncompassingPowerOfTwo(i)) : null;
+    }
+
     private Climate.ParameterList<Holder<Biome>> parameters() {
         return this.parameters.map(p_275171_ -> p_275171_, p_275172_ -> p_275172_.value().parameters());
     }
@@ -58,7 +76,10 @@ public class MultiNoiseBiomeSource extends BiomeSource {
 
     @Override
     public Holder<Biome> getNoiseBiome(int p_204272_, int p_204273_, int p_204274_, Climate.Sampler p_204275_) {
-        return this.getNoiseBiome(p_204275_.sample(p_204272_, p_204273_, p_204274_));
+        MultiNoiseBiomeSource.LookupCache multinoisebiomesource$lookupcache = this.lookupCache;
+        return multinoisebiomesource$lookupcache != null && multinoisebiomesource$lookupcache.sampler == p_204275_
+            ? multinoisebiomesource$lookupcache.getNoiseBiome(this, p_204272_, p_204273_, p_204274_)
+            : this.getNoiseBiome(p_204275_.sample(p_204272_, p_204273_, p_204274_));
     }
 
     @VisibleForDebug
@@ -91,5 +112,53 @@ public class MultiNoiseBiomeSource extends BiomeSource {
                 + " H: "
                 + overworldbiomebuilder.getDebugStringForHumidity((double)f3)
         );
+        MultiNoiseBiomeSource.LookupCache multinoisebiomesource$lookupcache = this.lookupCache;
+        if (multinoisebiomesource$lookupcache != null) {
+            p_207895_.add(
+                "Biome cache H: "
+                    + multinoisebiomesource$lookupcache.hits.sum()
+                    + " M: "
+                    + multinoisebiomesource$lookupcache.misses.sum()
+                    + " E: "
+                    + multinoisebiomesource$lookupcache.evictions.sum()
+            );
+        }
+    }
+
+    static record CachedBiome(long pos, Holder<Biome> biome) {
+    }
+
+    static final class LookupCache {
+        final Climate.Sampler sampler;
+        private final AtomicReferenceArray<MultiNoiseBiomeSource.CachedBiome> entries;
+        private final int mask;
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder evictions = new LongAdder();
+
+        LookupCache(Climate.Sampler sampler, int size) {
+            this.sampler = sampler;
+            this.entries = new AtomicReferenceArray<>(size);
+            this.mask = size - 1;
+        }
+
+        Holder<Biome> getNoiseBiome(MultiNoiseBiomeSource source, int quartX, int quartY, int quartZ) {
+            long i = BlockPos.asLong(quartX, quartY, quartZ);
+            int j = (int)HashCommon.mix(i) & this.mask;
+            MultiNoiseBiomeSource.CachedBiome multinoisebiomesource$cachedbiome = this.entries.get(j);
+            if (multinoisebiomesource$cachedbiome != null && multinoisebiomesource$cachedbiome.pos == i) {
+                this.hits.increment();
+                return multinoisebiomesource$cachedbiome.biome;
+            } else {
+                this.misses.increment();
+                if (multinoisebiomesource$cachedbiome != null) {
+                    this.evictions.increment();
+                }
+
+                Holder<Biome> holder = source.getNoiseBiome(this.sampler.sample(quartX, quartY, quartZ));
+                this.entries.set(j, new MultiNoiseBiomeSource.CachedBiome(i, holder));
+                return holder;
+            }
+        }
     }
 }
\ No newline at end of file
@@ -86,6 +86,7 @@ public class LevelChunk extends ChunkAccess {
     private final LevelChunkTicks<Fluid> fluidTicks;
     private LevelChunk.UnsavedListener unsavedListener = p_360556_ -> {
     };
+    private volatile int modificationCount;
 
     public LevelChunk(Level p_187945_, ChunkPos p_187946_) {
         this(p_187945_, p_187946_, UpgradeData.EMPTY, new LevelChunkTicks<>(), new LevelChunkTicks<>(), 0L, null, null, null);
@@ -157,6 +158,10 @@ public class LevelChunk extends ChunkAccess {
         this.markUnsaved();
     }
 
+    public int getModificationCount() {
+        return this.modificationCount;
+    }
+
     public void setUnsavedListener(LevelChunk.UnsavedListener p_364949_) {
         this.unsavedListener = p_364949_;
         if (this.isUnsaved()) {
@@ -166,6 +171,7 @@ public class LevelChunk extends ChunkAccess {
 
     @Override
     public void markUnsaved() {
+        this.modificationCount++;
         boolean flag = this.isUnsaved();
         super.markUnsaved();
         if (!flag) {
@@ -199,7 +199,13 @@ public class PalettedContainer<T> implements PaletteResize<T>, PalettedContainer
     private static <T> DataResult<PalettedContainer<T>> unpack(
         IdMap<T> p_188068_, PalettedContainer.Strategy p_188069_, PalettedContainerRO.PackedData<T> p_238258_
     ) {
-        List<T> list = p_238258_.paletteEntries();
+        Optional<LongStream> optional = p_238258_.storage();
+        return unpack(p_188068_, p_188069_, p_238258_.paletteEntries(), optional.isPresent() ? optional.get().toArray() : null);
+    }
+
+    public static <T> DataResult<PalettedContainer<T>> unpack(
+        IdMap<T> p_188068_, PalettedContainer.Strategy p_188069_, List<T> list, @Nullable long[] along
+    ) {
         int i = p_188069_.size();
         int j = p_188069_.calculateBitsForSerialization(p_188068_, list.size());
         PalettedContainer.Configuration<T> configuration = p_188069_.getConfiguration(p_188068_, j);
@@ -207,13 +213,10 @@ public class PalettedContainer<T> implements PaletteResize<T>, PalettedContainer
         if (j == 0) {
             bitstorage = new ZeroBitStorage(i);
         } else {
-            Optional<LongStream> optional = p_238258_.storage();
-            if (optional.isEmpty()) {
+            if (along == null) {
                 return DataResult.error(() -> "Missing values for non-zero storage");
             }
 
-            long[] along = optional.get().toArray();
-
             try {
                 if (configuration.factory() == PalettedContainer.Strategy.GLOBAL_PALETTE_FACTORY) {
                     Palette<T> palette = new HashMapPalette<>(p_188068_, j, (p_238278_, p_238279_) -> 0, list);
@@ -235,30 +238,32 @@ public class PalettedContainer<T> implements PaletteResize<T>, PalettedContainer
 
     @Override
     public PalettedContainerRO.PackedData<T> pack(IdMap<T> p_188065_, PalettedContainer.Strategy p_188066_) {
+        PalettedContainerRO.RawPackedData<T> palettedcontainerro$rawpackeddata = this.packRaw(p_188065_, p_188066_);
+        long[] along = palettedcontainerro$rawpackeddata.storage();
+        return new PalettedContainerRO.PackedData<>(
+            palettedcontainerro$rawpackeddata.paletteEntries(), along != null ? Optional.of(Arrays.stream(along)) : Optional.empty()
+        );
+    }
+
+    @Override
+    public PalettedContainerRO.RawPackedData<T> packRaw(IdMap<T> registry, PalettedContainer.Strategy strategy) {
         this.acquire();
 
-        PalettedContainerRO.PackedData palettedcontainerro$packeddata;
+        PalettedContainerRO.RawPackedData<T> palettedcontainerro$rawpackeddata;
         try {
-            HashMapPalette<T> hashmappalette = new HashMapPalette<>(p_188065_, this.data.storage.getBits(), this.dummyPaletteResize);
-            int i = p_188066_.size();
+            HashMapPalette<T> hashmappalette = new HashMapPalette<>(registry, this.data.storage.getBits(), this.dummyPaletteResize);
+            int i = strategy.size();
             int[] aint = new int[i];
             this.data.storage.unpack(aint);
-            swapPalette(aint, p_198178_ -> hashmappalette.idFor(this.data.palette.valueFor(p_198178_)));
-            int j = p_188066_.calculateBitsForSerialization(p_188065_, hashmappalette.getSize());
-            Optional<LongStream> optional;
-            if (j != 0) {
-                SimpleBitStorage simplebitstorage = new SimpleBitStorage(j, i, aint);
-                optional = Optional.of(Arrays.stream(simplebitstorage.getRaw()));
-            } else {
-                optional = Optional.empty();
-            }
-
-            palettedcontainerro$packeddata = new PalettedContainerRO.PackedData<>(hashmappalette.getEntries(), optional);
+            swapPalette(aint, id -> hashmappalette.idFor(this.data.palette.valueFor(id)));
+            int j = strategy.calculateBitsForSerialization(registry, hashmappalette.getSize());
+            long[] along = j != 0 ? new SimpleBitStorage(j, i, aint).getRaw() : null;
+            palettedcontainerro$rawpackeddata = new PalettedContainerRO.RawPackedData<>(hashmappalette.getEntries(), along);
         } finally {
             this.release();
         }
 
-        return palettedcontainerro$packeddata;
+        return palettedcontainerro$rawpackeddata;
     }
 
     private static <T> void swapPalette(int[] p_198190_, IntUnaryOperator p_198191_) {
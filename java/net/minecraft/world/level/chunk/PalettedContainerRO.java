@@ -6,6 +6,7 @@ import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.LongStream;
+import javax.annotation.Nullable;
 import net.minecraft.core.IdMap;
 import net.minecraft.network.FriendlyByteBuf;
 
@@ -28,9 +29,14 @@ public interface PalettedContainerRO<T> {
 
     PalettedContainerRO.PackedData<T> pack(IdMap<T> p_238441_, PalettedContainer.Strategy p_238442_);
 
+    PalettedContainerRO.RawPackedData<T> packRaw(IdMap<T> registry, PalettedContainer.Strategy strategy);
+
     public static record PackedData<T>(List<T> paletteEntries, Optional<LongStream> storage) {
     }
 
+    public static record RawPackedData<T>(List<T> paletteEntries, @Nullable long[] storage) {
+    }
+
     public interface Unpacker<T, C extends PalettedContainerRO<T>> {
         DataResult<C> read(IdMap<T> p_238364_, PalettedContainer.Strategy p_238365_, PalettedContainerRO.PackedData<T> p_238366_);
     }
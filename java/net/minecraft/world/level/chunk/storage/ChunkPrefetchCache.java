@@ -0,0 +1,95 @@
+package net.minecraft.world.level.chunk.storage;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import javax.annotation.Nullable;
+
+public class ChunkPrefetchCache {
+    private static volatile long maxBytes = 33554432L;
+    private final Long2ObjectLinkedOpenHashMap<byte[]> entries = new Long2ObjectLinkedOpenHashMap<>();
+    private final Long2LongMap inFlight = new Long2LongOpenHashMap();
+    private long nextReservation = 1L;
+    private long size;
+    private volatile long hits;
+    private volatile long misses;
+    private volatile long evictions;
+
+    public static void configure(int megabytes) {
+        maxBytes = (long)Math.max(0, megabytes) * 1024L * 1024L;
+    }
+
+    public static boolean isEnabled() {
+        return maxBytes > 0L;
+    }
+
+    public synchronized long reserve(long pos) {
+        if (isEnabled() && !this.entries.containsKey(pos) && !this.inFlight.containsKey(pos)) {
+            long i = this.nextReservation++;
+            this.inFlight.put(pos, i);
+            return i;
+        } else {
+            return 0L;
+        }
+    }
+
+    public synchronized void complete(long pos, long reservation, @Nullable byte[] data) {
+        if (this.inFlight.get(pos) == reservation && this.inFlight.remove(pos) != 0L && data != null && data.length <= maxBytes) {
+            byte[] abyte = this.entries.putAndMoveToLast(pos, data);
+            if (abyte != null) {
+                this.size -= abyte.length;
+            }
+
+            this.size += data.length;
+
+            while (this.size > maxBytes && !this.entries.isEmpty()) {
+                this.size = this.size - this.entries.removeFirst().length;
+                this.evictions++;
+            }
+        }
+    }
+
+    @Nullable
+    public synchronized byte[] take(long pos) {
+        this.inFlight.remove(pos);
+        byte[] abyte = this.entries.remove(pos);
+        if (abyte != null) {
+            this.size = this.size - abyte.length;
+            this.hits++;
+        } else if (isEnabled()) {
+            this.misses++;
+        }
+
+        return abyte;
+    }
+
+    public synchronized void invalidate(long pos) {
+        this.inFlight.remove(pos);
+        byte[] abyte = this.entries.remove(pos);
+        if (abyte != null) {
+            this.size = this.size - abyte.length;
+        }
+    }
+
+    public synchronized void clear() {
+        this.inFlight.clear();
+        this.entries.clear();
+        this.size = 0L;
+    }
+
+    public synchronized long size() {
+        return this.size;
+    }
+
+    public long hits() {
+        return this.hits;
+    }
+
+    public long misses() {
+        return this.misses;
+    }
+
+    public long evictions() {
+        return this.evictions;
+    }
+}
@@ -1,9 +1,11 @@
 package net.minecraft.world.level.chunk.storage;
 
 import com.mojang.datafixers.DataFixer;
+import com.mojang.datafixers.util.Either;
 import com.mojang.serialization.MapCodec;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
@@ -12,12 +14,14 @@ import net.minecraft.CrashReport;
 import net.minecraft.CrashReportCategory;
 import net.minecraft.ReportedException;
 import net.minecraft.SharedConstants;
+import net.minecraft.core.RegistryAccess;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.NbtUtils;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.util.datafix.DataFixTypes;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LevelHeightAccessor;
 import net.minecraft.world.level.chunk.ChunkGenerator;
 import net.minecraft.world.level.levelgen.structure.LegacyStructureDataHandler;
 import net.minecraft.world.level.storage.DimensionDataStorage;
@@ -104,11 +108,26 @@ public class ChunkStorage implements AutoCloseable {
         return this.worker.loadAsync(p_223455_);
     }
 
-    public CompletableFuture<Void> write(ChunkPos p_63503_, Supplier<CompoundTag> p_366489_) {
+    public CompletableFuture<Optional<Either<SerializableChunkData, CompoundTag>>> readChunkData(
+        ChunkPos pos, LevelHeightAccessor heightAccessor, RegistryAccess registryAccess
+    ) {
+        return this.worker.loadAsync(pos, input -> StreamingChunkCodec.read(input, pos, heightAccessor, registryAccess));
+    }
+
+    public void prefetch(List<ChunkPos> positions) {
+        this.worker.prefetch(positions);
+    }
+
+    public CompletableFuture<Void> write(ChunkPos p_63503_, CompletableFuture<CompoundTag> p_366489_) {
         this.handleLegacyStructureIndex(p_63503_);
         return this.worker.store(p_63503_, p_366489_);
     }
 
+    public CompletableFuture<Void> write(ChunkPos pos, SerializableChunkData chunkData) {
+        this.handleLegacyStructureIndex(pos);
+        return this.worker.store(pos, output -> StreamingChunkCodec.write(chunkData, output));
+    }
+
     protected void handleLegacyStructureIndex(ChunkPos p_328966_) {
         if (this.legacyStructureHandler != null) {
             this.legacyStructureHandler.removeIndex(p_328966_.toLong());
@@ -1,43 +1,71 @@
 package net.minecraft.world.level.chunk.storage;
 
+import com.google.common.collect.ImmutableList;
 import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.SequencedMap;
 import java.util.Map.Entry;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import net.minecraft.Util;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.IntTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
 import net.minecraft.nbt.StreamTagVisitor;
 import net.minecraft.nbt.visitors.CollectFields;
 import net.minecraft.nbt.visitors.FieldSelector;
-import net.minecraft.util.Unit;
+import net.minecraft.util.profiling.metrics.MetricCategory;
+import net.minecraft.util.profiling.metrics.MetricSampler;
+import net.minecraft.util.profiling.metrics.MetricsRegistry;
+import net.minecraft.util.profiling.metrics.ProfilerMeasured;
 import net.minecraft.util.thread.PriorityConsecutiveExecutor;
 import net.minecraft.util.thread.StrictQueue;
 import net.minecraft.world.level.ChunkPos;
 import org.slf4j.Logger;
 
-public class IOWorker implements ChunkScanAccess, AutoCloseable {
+public class IOWorker implements ChunkScanAccess, ProfilerMeasured, AutoCloseable {
     private static final Logger LOGGER = LogUtils.getLogger();
     private final AtomicBoolean shutdownRequested = new AtomicBoolean();
     private final PriorityConsecutiveExecutor consecutiveExecutor;
     private final RegionFileStorage storage;
     private final SequencedMap<ChunkPos, IOWorker.PendingStore> pendingWrites = new LinkedHashMap<>();
+    private final Map<ChunkPos, IOWorker.PendingStore> flushingWrites = new HashMap<>();
+    @Nullable
+    private CompletableFuture<Void> activeFlush;
+    private volatile int lastFlushSize;
+    private volatile int lastFlushRegions;
+    private volatile double lastFlushMillis;
+    private final ChunkPrefetchCache prefetchCache = new ChunkPrefetchCache();
     private final Long2ObjectLinkedOpenHashMap<CompletableFuture<BitSet>> regionCacheForBlender = new Long2ObjectLinkedOpenHashMap<>();
     private static final int REGION_CACHE_SIZE = 1024;
 
     protected IOWorker(RegionStorageInfo p_335181_, Path p_196930_, boolean p_196931_) {
         this.storage = new RegionFileStorage(p_335181_, p_196930_, p_196931_);
         this.consecutiveExecutor = new PriorityConsecutiveExecutor(IOWorker.Priority.values().length, Util.ioPool(), "IOWorker-" + p_335181_.type());
+        MetricsRegistry.INSTANCE.add(this);
     }
 
     public boolean isOldChunkAround(ChunkPos p_223472_, int p_223473_) {
@@ -122,38 +150,177 @@ public class IOWorker implements ChunkScanAccess, AutoCloseable {
     }
 
     public CompletableFuture<Void> store(ChunkPos p_63539_, @Nullable CompoundTag p_63540_) {
-        return this.store(p_63539_, () -> p_63540_);
+        return this.store(p_63539_, CompletableFuture.completedFuture(p_63540_));
     }
 
-    public CompletableFuture<Void> store(ChunkPos p_363895_, Supplier<CompoundTag> p_367671_) {
+    public CompletableFuture<Void> store(ChunkPos p_363895_, CompletableFuture<CompoundTag> p_367671_) {
+        RegionFileVersion regionfileversion = RegionFileVersion.getSelected();
+        return this.storeEncoded(p_363895_, p_367671_.thenApplyAsync(tag -> {
+            try {
+                return RegionFileStorage.encode(p_363895_, tag, regionfileversion);
+            } catch (IOException ioexception) {
+                throw new CompletionException(ioexception);
+            }
+        }, Util.chunkEncodingExecutor()));
+    }
+
+    public CompletableFuture<Void> store(ChunkPos pos, RegionFileStorage.ChunkWriter writer) {
+        RegionFileVersion regionfileversion = RegionFileVersion.getSelected();
+        return this.storeEncoded(pos, CompletableFuture.supplyAsync(() -> {
+            try {
+                return RegionFileStorage.encode(pos, writer, regionfileversion);
+            } catch (IOException ioexception) {
+                throw new CompletionException(ioexception);
+            }
+        }, Util.chunkEncodingExecutor()));
+    }
+
+    private CompletableFuture<Void> storeEncoded(ChunkPos pos, CompletableFuture<RegionFile.PendingChunk> encoded) {
         return this.<CompletableFuture<Void>>submitTask(() -> {
-            CompoundTag compoundtag = p_367671_.get();
-            IOWorker.PendingStore ioworker$pendingstore = this.pendingWrites.computeIfAbsent(p_363895_, p_223488_ -> new IOWorker.PendingStore(compoundtag));
-            ioworker$pendingstore.data = compoundtag;
+            this.prefetchCache.invalidate(pos.toLong());
+            IOWorker.PendingStore ioworker$pendingstore = this.pendingWrites.computeIfAbsent(pos, unused -> new IOWorker.PendingStore(encoded));
+            ioworker$pendingstore.encoded = encoded;
             return ioworker$pendingstore.result;
         }).thenCompose(Function.identity());
     }
 
     public CompletableFuture<Optional<CompoundTag>> loadAsync(ChunkPos p_156588_) {
-        return this.submitThrowingTask(() -> {
-            IOWorker.PendingStore ioworker$pendingstore = this.pendingWrites.get(p_156588_);
+        return this.loadAsync(p_156588_, NbtIo::read);
+    }
+
+    public <T> CompletableFuture<Optional<T>> loadAsync(ChunkPos pos, RegionFileStorage.ChunkReader<T> reader) {
+        return this.storage.supportsConcurrentReads() ? this.loadConcurrently(pos, reader) : this.loadOnWorker(pos, reader);
+    }
+
+    private <T> CompletableFuture<Optional<T>> loadConcurrently(ChunkPos pos, RegionFileStorage.ChunkReader<T> reader) {
+        return this.<CompletableFuture<Optional<T>>>submitThrowingTask(() -> {
+            IOWorker.PendingStore ioworker$pendingstore = this.getPendingStore(pos);
+            byte[] abyte = ioworker$pendingstore == null ? this.prefetchCache.take(pos.toLong()) : null;
             if (ioworker$pendingstore != null) {
-                return Optional.ofNullable(ioworker$pendingstore.copyData());
+                return ioworker$pendingstore.read(reader);
+            } else if (abyte != null) {
+                return CompletableFuture.supplyAsync(() -> readPrefetched(abyte, reader), Util.ioPool());
+            } else {
+                RegionFile regionfile = this.storage.getRegionFile(pos);
+                regionfile.pin();
+                return CompletableFuture.<Optional<T>>supplyAsync(() -> {
+                    try {
+                        return Optional.ofNullable(RegionFileStorage.read(regionfile, pos, reader));
+                    } catch (ClosedChannelException closedchannelexception) {
+                        return null;
+                    } catch (Exception exception) {
+                        LOGGER.warn("Failed to read chunk {}", pos, exception);
+                        throw new CompletionException(exception);
+                    } finally {
+                        regionfile.unpin();
+                    }
+                }, Util.ioPool()).thenCompose(optional -> optional != null ? CompletableFuture.completedFuture(optional) : this.loadOnWorker(pos, reader));
+            }
+        }).thenCompose(Function.identity());
+    }
+
+    private <T> CompletableFuture<Optional<T>> loadOnWorker(ChunkPos p_156588_, RegionFileStorage.ChunkReader<T> reader) {
+        return this.<CompletableFuture<Optional<T>>>submitThrowingTask(() -> {
+            IOWorker.PendingStore ioworker$pendingstore = this.getPendingStore(p_156588_);
+            byte[] abyte = ioworker$pendingstore == null ? this.prefetchCache.take(p_156588_.toLong()) : null;
+            if (ioworker$pendingstore != null) {
+                return ioworker$pendingstore.read(reader);
+            } else if (abyte != null) {
+                return CompletableFuture.completedFuture(readPrefetched(abyte, reader));
             } else {
                 try {
-                    CompoundTag compoundtag = this.storage.read(p_156588_);
-                    return Optional.ofNullable(compoundtag);
+                    T t = RegionFileStorage.read(this.storage.getRegionFile(p_156588_), p_156588_, reader);
+                    return CompletableFuture.completedFuture(Optional.ofNullable(t));
                 } catch (Exception exception) {
                     LOGGER.warn("Failed to read chunk {}", p_156588_, exception);
                     throw exception;
                 }
             }
-        });
+        }).thenCompose(Function.identity());
+    }
+
+    private static <T> Optional<T> readPrefetched(byte[] data, RegionFileStorage.ChunkReader<T> reader) {
+        try (DataInputStream datainputstream = new DataInputStream(new ByteArrayInputStream(data))) {
+            return Optional.ofNullable(reader.read(datainputstream));
+        } catch (IOException ioexception) {
+            throw new CompletionException(ioexception);
+        }
+    }
+
+    public void prefetch(List<ChunkPos> positions) {
+        if (ChunkPrefetchCache.isEnabled() && !positions.isEmpty()) {
+            this.consecutiveExecutor.schedule(new StrictQueue.RunnableWithPriority(IOWorker.Priority.BACKGROUND.ordinal(), () -> {
+                if (!this.shutdownRequested.get()) {
+                    this.readAhead(positions);
+                }
+            }));
+        }
+    }
+
+    private void readAhead(List<ChunkPos> positions) {
+        Long2ObjectMap<List<ChunkPos>> long2objectmap = new Long2ObjectLinkedOpenHashMap<>();
+        Long2LongMap long2longmap = new Long2LongOpenHashMap();
+
+        for (ChunkPos chunkpos : positions) {
+            long i = this.getPendingStore(chunkpos) == null ? this.prefetchCache.reserve(chunkpos.toLong()) : 0L;
+            if (i != 0L) {
+                long2longmap.put(chunkpos.toLong(), i);
+                long2objectmap.computeIfAbsent(ChunkPos.asLong(chunkpos.getRegionX(), chunkpos.getRegionZ()), region -> new ArrayList<>()).add(chunkpos);
+            }
+        }
+
+        for (List<ChunkPos> list : long2objectmap.values()) {
+            List<RegionFile.PrefetchedChunk> list1 = List.of();
+
+            try {
+                RegionFile regionfile = this.storage.getRegionFile(list.get(0), false);
+                if (regionfile != null) {
+                    list1 = regionfile.readAhead(list);
+                    List<RegionFile.PrefetchedChunk> list2 = list1;
+                    Util.backgroundExecutor().forName("prefetchChunks").execute(() -> {
+                        for (RegionFile.PrefetchedChunk regionfile$prefetchedchunk : list2) {
+                            byte[] abyte = null;
+
+                            try {
+                                abyte = regionfile.decompress(regionfile$prefetchedchunk);
+                            } catch (IOException ioexception1) {
+                                LOGGER.debug("Failed to decompress prefetched chunk {}", regionfile$prefetchedchunk.pos(), ioexception1);
+                            }
+
+                            long j = regionfile$prefetchedchunk.pos().toLong();
+                            this.prefetchCache.complete(j, long2longmap.get(j), abyte);
+                        }
+                    });
+                }
+            } catch (IOException ioexception) {
+                LOGGER.warn("Failed to prefetch chunks from region of {}", list.get(0), ioexception);
+            }
+
+            for (ChunkPos chunkpos1 : list) {
+                if (!containsPos(list1, chunkpos1)) {
+                    this.prefetchCache.complete(chunkpos1.toLong(), long2longmap.get(chunkpos1.toLong()), null);
+                }
+            }
+        }
+    }
+
+    private static boolean containsPos(List<RegionFile.PrefetchedChunk> chunks, ChunkPos pos) {
+        for (RegionFile.PrefetchedChunk regionfile$prefetchedchunk : chunks) {
+            if (regionfile$prefetchedchunk.pos().equals(pos)) {
+                return true;
+            }
+        }
+
+        return false;
     }
 
     public CompletableFuture<Void> synchronize(boolean p_182499_) {
         CompletableFuture<Void> completablefuture = this.<CompletableFuture<Void>>submitTask(
-                () -> CompletableFuture.allOf(this.pendingWrites.values().stream().map(p_223475_ -> p_223475_.result).toArray(CompletableFuture[]::new))
+                () -> CompletableFuture.allOf(
+                        Stream.concat(this.pendingWrites.values().stream(), this.flushingWrites.values().stream())
+                            .map(p_223475_ -> p_223475_.result)
+                            .toArray(CompletableFuture[]::new)
+                    )
             )
             .thenCompose(Function.identity());
         return p_182499_ ? completablefuture.thenCompose(p_360563_ -> this.submitThrowingTask(() -> {
@@ -169,23 +336,30 @@ public class IOWorker implements ChunkScanAccess, AutoCloseable {
 
     @Override
     public CompletableFuture<Void> scanChunk(ChunkPos p_196939_, StreamTagVisitor p_196940_) {
-        return this.submitThrowingTask(() -> {
-            try {
-                IOWorker.PendingStore ioworker$pendingstore = this.pendingWrites.get(p_196939_);
-                if (ioworker$pendingstore != null) {
-                    if (ioworker$pendingstore.data != null) {
-                        ioworker$pendingstore.data.acceptAsRoot(p_196940_);
+        return this.<CompletableFuture<Void>>submitThrowingTask(() -> {
+            IOWorker.PendingStore ioworker$pendingstore = this.getPendingStore(p_196939_);
+            if (ioworker$pendingstore != null) {
+                return ioworker$pendingstore.encoded.thenAccept(chunk -> {
+                    try {
+                        RegionFileStorage.decode(chunk, input -> {
+                            NbtIo.parse(input, p_196940_, NbtAccounter.unlimitedHeap());
+                            return null;
+                        });
+                    } catch (IOException ioexception) {
+                        LOGGER.warn("Failed to bulk scan chunk {}", p_196939_, ioexception);
+                        throw new CompletionException(ioexception);
                     }
-                } else {
+                });
+            } else {
+                try {
                     this.storage.scanChunk(p_196939_, p_196940_);
+                    return CompletableFuture.completedFuture(null);
+                } catch (Exception exception) {
+                    LOGGER.warn("Failed to bulk scan chunk {}", p_196939_, exception);
+                    throw exception;
                 }
-
-                return null;
-            } catch (Exception exception) {
-                LOGGER.warn("Failed to bulk scan chunk {}", p_196939_, exception);
-                throw exception;
             }
-        });
+        }).thenCompose(Function.identity());
     }
 
     private <T> CompletableFuture<T> submitThrowingTask(IOWorker.ThrowingSupplier<T> p_363182_) {
@@ -212,26 +386,94 @@ public class IOWorker implements ChunkScanAccess, AutoCloseable {
         });
     }
 
+    @Nullable
+    private IOWorker.PendingStore getPendingStore(ChunkPos pos) {
+        IOWorker.PendingStore ioworker$pendingstore = this.pendingWrites.get(pos);
+        return ioworker$pendingstore != null ? ioworker$pendingstore : this.flushingWrites.get(pos);
+    }
+
     private void storePendingChunk() {
-        Entry<ChunkPos, IOWorker.PendingStore> entry = this.pendingWrites.pollFirstEntry();
-        if (entry != null) {
-            this.runStore(entry.getKey(), entry.getValue());
-            this.tellStorePending();
+        if (this.activeFlush == null && !this.pendingWrites.isEmpty()) {
+            long i = Util.getNanos();
+            List<Entry<ChunkPos, IOWorker.PendingStore>> list = new ArrayList<>(Math.min(this.pendingWrites.size(), 1024));
+            List<CompletableFuture<RegionFile.PendingChunk>> list1 = new ArrayList<>(Math.min(this.pendingWrites.size(), 1024));
+
+            while (list.size() < 1024) {
+                Entry<ChunkPos, IOWorker.PendingStore> entry = this.pendingWrites.pollFirstEntry();
+                if (entry == null) {
+                    break;
+                }
+
+                list.add(entry);
+                list1.add(entry.getValue().encoded);
+                this.flushingWrites.put(entry.getKey(), entry.getValue());
+            }
+
+            this.activeFlush = CompletableFuture.allOf(list1.toArray(CompletableFuture[]::new))
+                .handle((result, throwable) -> null)
+                .thenCompose(
+                    unused -> this.consecutiveExecutor.<Void>scheduleWithResult(IOWorker.Priority.BACKGROUND.ordinal(), future -> {
+                        this.writeFlush(list, list1, i);
+                        future.complete(null);
+                    })
+                );
         }
     }
 
-    private void tellStorePending() {
-        this.consecutiveExecutor.schedule(new StrictQueue.RunnableWithPriority(IOWorker.Priority.BACKGROUND.ordinal(), this::storePendingChunk));
-    }
+    private void writeFlush(List<Entry<ChunkPos, IOWorker.PendingStore>> entries, List<CompletableFuture<RegionFile.PendingChunk>> encoded, long startNanos) {
+        Long2ObjectMap<IntList> long2objectmap = new Long2ObjectLinkedOpenHashMap<>();
+
+        for (int i = 0; i < entries.size(); i++) {
+            ChunkPos chunkpos = entries.get(i).getKey();
+            long2objectmap.computeIfAbsent(ChunkPos.asLong(chunkpos.getRegionX(), chunkpos.getRegionZ()), region -> new IntArrayList()).add(i);
+        }
+
+        for (IntList intlist : long2objectmap.values()) {
+            List<RegionFile.PendingChunk> list = new ArrayList<>(intlist.size());
+            IntList intlist1 = new IntArrayList(intlist.size());
+
+            for (int j : intlist) {
+                ChunkPos chunkpos1 = entries.get(j).getKey();
+
+                try {
+                    list.add(encoded.get(j).join());
+                    intlist1.add(j);
+                } catch (CompletionException completionexception) {
+                    LOGGER.error("Failed to store chunk {}", chunkpos1, completionexception.getCause());
+                    entries.get(j).getValue().result.completeExceptionally(completionexception.getCause());
+                }
+            }
 
-    private void runStore(ChunkPos p_63536_, IOWorker.PendingStore p_63537_) {
-        try {
-            this.storage.write(p_63536_, p_63537_.data);
-            p_63537_.result.complete(null);
-        } catch (Exception exception) {
-            LOGGER.error("Failed to store chunk {}", p_63536_, exception);
-            p_63537_.result.completeExceptionally(exception);
+            try {
+                this.storage.writeBatch(list);
+
+                for (int k : intlist1) {
+                    entries.get(k).getValue().result.complete(null);
+                }
+            } catch (Exception exception) {
+                LOGGER.error("Failed to store {} chunks starting at {}", list.size(), list.isEmpty() ? null : list.get(0).pos(), exception);
+
+                for (int l : intlist1) {
+                    entries.get(l).getValue().result.completeExceptionally(exception);
+                }
+            }
         }
+
+        for (Entry<ChunkPos, IOWorker.PendingStore> entry : entries) {
+            this.flushingWrites.remove(entry.getKey(), entry.getValue());
+        }
+
+        long i1 = Util.getNanos() - startNanos;
+        this.lastFlushSize = entries.size();
+        this.lastFlushRegions = long2objectmap.size();
+        this.lastFlushMillis = (double)i1 / 1000000.0;
+        LOGGER.debug("Flushed {} chunks in {} regions for {} in {} ms", entries.size(), long2objectmap.size(), this.storage.info().type(), this.lastFlushMillis);
+        this.activeFlush = null;
+        this.tellStorePending();
+    }
+
+    private void tellStorePending() {
+        this.consecutiveExecutor.schedule(new StrictQueue.RunnableWithPriority(IOWorker.Priority.BACKGROUND.ordinal(), this::storePendingChunk));
     }
 
     @Override
@@ -240,6 +482,8 @@ public class IOWorker implements ChunkScanAccess, AutoCloseable {
             this.waitForShutdown();
             this.consecutiveExecutor.close();
 
+            this.prefetchCache.clear();
+
             try {
                 this.storage.close();
             } catch (Exception exception) {
@@ -249,7 +493,30 @@ public class IOWorker implements ChunkScanAccess, AutoCloseable {
     }
 
     private void waitForShutdown() {
-        this.consecutiveExecutor.scheduleWithResult(IOWorker.Priority.SHUTDOWN.ordinal(), p_360562_ -> p_360562_.complete(Unit.INSTANCE)).join();
+        while (true) {
+            CompletableFuture<Void> completablefuture = this.consecutiveExecutor
+                .<CompletableFuture<Void>>scheduleWithResult(IOWorker.Priority.SHUTDOWN.ordinal(), p_360562_ -> p_360562_.complete(this.activeFlush))
+                .join();
+            if (completablefuture == null) {
+                return;
+            }
+
+            completablefuture.join();
+        }
+    }
+
+    @Override
+    public List<MetricSampler> profiledMetrics() {
+        String s = "IOWorker-" + this.storage.info().type();
+        return ImmutableList.of(
+            MetricSampler.create(s + "-flush-size", MetricCategory.CHUNK_IO, () -> (double)this.lastFlushSize),
+            MetricSampler.create(s + "-flush-regions", MetricCategory.CHUNK_IO, () -> (double)this.lastFlushRegions),
+            MetricSampler.create(s + "-flush-ms", MetricCategory.CHUNK_IO, () -> this.lastFlushMillis),
+            MetricSampler.create(s + "-prefetch-hits", MetricCategory.CHUNK_IO, () -> (double)this.prefetchCache.hits()),
+            MetricSampler.create(s + "-prefetch-misses", MetricCategory.CHUNK_IO, () -> (double)this.prefetchCache.misses()),
+            MetricSampler.create(s + "-prefetch-evictions", MetricCategory.CHUNK_IO, () -> (double)this.prefetchCache.evictions()),
+            MetricSampler.create(s + "-prefetch-bytes", MetricCategory.CHUNK_IO, () -> (double)this.prefetchCache.size())
+        );
     }
 
     public RegionStorageInfo storageInfo() {
@@ -257,18 +524,21 @@ public class IOWorker implements ChunkScanAccess, AutoCloseable {
     }
 
     static class PendingStore {
-        @Nullable
-        CompoundTag data;
+        CompletableFuture<RegionFile.PendingChunk> encoded;
         final CompletableFuture<Void> result = new CompletableFuture<>();
 
-        public PendingStore(@Nullable CompoundTag p_63568_) {
-            this.data = p_63568_;
+        public PendingStore(CompletableFuture<RegionFile.PendingChunk> encoded) {
+            this.encoded = encoded;
         }
 
-        @Nullable
-        CompoundTag copyData() {
-            CompoundTag compoundtag = this.data;
-            return compoundtag == null ? null : compoundtag.copy();
+        <T> CompletableFuture<Optional<T>> read(RegionFileStorage.ChunkReader<T> reader) {
+            return this.encoded.thenApply(chunk -> {
+                try {
+                    return Optional.ofNullable(RegionFileStorage.decode(chunk, reader));
+                } catch (IOException ioexception) {
+                    throw new CompletionException(ioexception);
+                }
+            });
         }
     }
 
@@ -0,0 +1,290 @@
+package net.minecraft.world.level.chunk.storage;
+
+import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import javax.annotation.Nullable;
+import net.minecraft.util.profiling.jfr.JvmProfiler;
+import net.minecraft.world.level.ChunkPos;
+import org.slf4j.Logger;
+
+public class MappedRegionFile extends RegionFile {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+    private final Object writeLock = new Object();
+    private final Object mapLock = new Object();
+    private final Int2IntMap leases = new Int2IntOpenHashMap();
+    private final Int2IntMap deferredFrees = new Int2IntOpenHashMap();
+    @Nullable
+    private volatile MappedByteBuffer mapped;
+
+    public MappedRegionFile(RegionStorageInfo info, Path path, Path externalFileDir, boolean sync) throws IOException {
+        this(info, path, externalFileDir, RegionFileVersion.getSelected(), sync);
+    }
+
+    public MappedRegionFile(RegionStorageInfo info, Path path, Path externalFileDir, RegionFileVersion version, boolean sync) throws IOException {
+        super(info, path, externalFileDir, version, sync);
+        this.remap(0L);
+    }
+
+    @Nullable
+    @Override
+    public DataInputStream getChunkDataInputStream(ChunkPos pos) throws IOException {
+        int i = this.acquireLease(pos);
+        if (i == 0) {
+            return null;
+        } else {
+            int j = getSectorNumber(i);
+            int k = getNumSectors(i);
+            int l = k * 4096;
+            boolean flag = false;
+
+            try {
+                ByteBuffer bytebuffer = this.mappedView((long)j * 4096L, l);
+                if (bytebuffer.remaining() < 5) {
+                    LOGGER.error("Chunk {} header is truncated: expected {} but read {}", pos, l, bytebuffer.remaining());
+                    return null;
+                } else {
+                    int i1 = bytebuffer.getInt();
+                    byte b0 = bytebuffer.get();
+                    if (i1 == 0) {
+                        LOGGER.warn("Chunk {} is allocated, but stream is missing", pos);
+                        return null;
+                    } else {
+                        int j1 = i1 - 1;
+                        if (isExternalStreamChunk(b0)) {
+                            if (j1 != 0) {
+                                LOGGER.warn("Chunk has both internal and external streams");
+                            }
+
+                            return this.createExternalChunkInputStream(pos, getExternalChunkVersion(b0));
+                        } else if (j1 > bytebuffer.remaining()) {
+                            LOGGER.error("Chunk {} stream is truncated: expected {} but read {}", pos, j1, bytebuffer.remaining());
+                            return null;
+                        } else if (j1 < 0) {
+                            LOGGER.error("Declared size {} of chunk {} is negative", i1, pos);
+                            return null;
+                        } else {
+                            JvmProfiler.INSTANCE.onRegionFileRead(this.info, pos, this.version, j1);
+                            bytebuffer.limit(bytebuffer.position() + j1);
+                            DataInputStream datainputstream = this.createChunkInputStream(pos, b0, new MappedRegionFile.LeasedInputStream(bytebuffer, j));
+                            flag = datainputstream != null;
+                            return datainputstream;
+                        }
+                    }
+                }
+            } finally {
+                if (!flag) {
+                    this.releaseLease(j);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void clear(ChunkPos pos) throws IOException {
+        synchronized (this.writeLock) {
+            int i = getOffsetIndex(pos);
+            int j;
+            synchronized (this.leases) {
+                j = this.offsets.get(i);
+                if (j != 0) {
+                    this.offsets.put(i, 0);
+                    this.timestamps.put(i, getTimestamp());
+                }
+            }
+
+            if (j != 0) {
+                this.writeHeader();
+                Files.deleteIfExists(this.getExternalChunkPath(pos));
+                this.freeSectors(getSectorNumber(j), getNumSectors(j));
+            }
+        }
+    }
+
+    @Override
+    protected void write(ChunkPos pos, ByteBuffer data) throws IOException {
+        synchronized (this.writeLock) {
+            int i = getOffsetIndex(pos);
+            int j = data.remaining();
+            int k = sizeToSectors(j);
+            int l;
+            RegionFile.CommitOp regionfile$commitop;
+            if (k >= 256) {
+                Path path = this.getExternalChunkPath(pos);
+                LOGGER.warn("Saving oversized chunk {} ({} bytes} to external file {}", pos, j, path);
+                k = 1;
+                l = this.allocateSectors(k);
+                regionfile$commitop = this.writeToExternalFile(path, data);
+                this.file.write(this.createExternalStub(), (long)l * 4096L);
+            } else {
+                l = this.allocateSectors(k);
+                regionfile$commitop = () -> Files.deleteIfExists(this.getExternalChunkPath(pos));
+                this.file.write(data, (long)l * 4096L);
+            }
+
+            int i1 = this.replaceOffset(i, this.packSectorOffset(l, k));
+            this.writeHeader();
+            regionfile$commitop.run();
+            if (i1 != 0) {
+                this.freeSectors(getSectorNumber(i1), getNumSectors(i1));
+            }
+        }
+    }
+
+    @Override
+    void writeBatch(List<RegionFile.PendingChunk> chunks) throws IOException {
+        synchronized (this.writeLock) {
+            super.writeBatch(chunks);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this.writeLock) {
+            this.mapped = null;
+            super.close();
+        }
+    }
+
+    private int acquireLease(ChunkPos pos) {
+        synchronized (this.leases) {
+            int i = this.offsets.get(getOffsetIndex(pos));
+            if (i != 0) {
+                this.leases.mergeInt(getSectorNumber(i), 1, Integer::sum);
+            }
+
+            return i;
+        }
+    }
+
+    void releaseLease(int sector) {
+        synchronized (this.leases) {
+            int i = this.leases.mergeInt(sector, -1, Integer::sum);
+            if (i <= 0) {
+                this.leases.remove(sector);
+                int j = this.deferredFrees.remove(sector);
+                if (j != 0) {
+                    this.usedSectors.free(sector, j);
+                }
+            }
+        }
+    }
+
+    @Override
+    int allocateSectors(int count) {
+        synchronized (this.leases) {
+            return this.usedSectors.allocate(count);
+        }
+    }
+
+    @Override
+    void freeSectors(int sector, int count) {
+        synchronized (this.leases) {
+            if (this.leases.containsKey(sector)) {
+                this.deferredFrees.put(sector, count);
+            } else {
+                this.usedSectors.free(sector, count);
+            }
+        }
+    }
+
+    @Override
+    int replaceOffset(int index, int offset) {
+        synchronized (this.leases) {
+            return super.replaceOffset(index, offset);
+        }
+    }
+
+    private ByteBuffer mappedView(long start, int length) throws IOException {
+        MappedByteBuffer mappedbytebuffer = this.mapped;
+        if (mappedbytebuffer == null || mappedbytebuffer.capacity() < start + length) {
+            mappedbytebuffer = this.remap(start + length);
+        }
+
+        if (start >= mappedbytebuffer.capacity()) {
+            return EMPTY_BUFFER;
+        } else {
+            int i = (int)Math.min((long)length, mappedbytebuffer.capacity() - start);
+            return mappedbytebuffer.slice((int)start, i);
+        }
+    }
+
+    private MappedByteBuffer remap(long requiredSize) throws IOException {
+        synchronized (this.mapLock) {
+            MappedByteBuffer mappedbytebuffer = this.mapped;
+            if (mappedbytebuffer != null && mappedbytebuffer.capacity() >= requiredSize) {
+                return mappedbytebuffer;
+            } else {
+                long i = this.file.size();
+                if (i > Integer.MAX_VALUE) {
+                    throw new IOException("Region file " + this.getPath() + " is too large to map: " + i + " bytes");
+                } else if (mappedbytebuffer != null && mappedbytebuffer.capacity() == i) {
+                    return mappedbytebuffer;
+                } else {
+                    mappedbytebuffer = this.file.map(FileChannel.MapMode.READ_ONLY, 0L, i);
+                    this.mapped = mappedbytebuffer;
+                    return mappedbytebuffer;
+                }
+            }
+        }
+    }
+
+    class LeasedInputStream extends InputStream {
+        private final ByteBuffer buffer;
+        private final int sector;
+        private boolean released;
+
+        LeasedInputStream(final ByteBuffer buffer, final int sector) {
+            this.buffer = buffer;
+            this.sector = sector;
+        }
+
+        @Override
+        public int read() {
+            return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            } else if (!this.buffer.hasRemaining()) {
+                return -1;
+            } else {
+                int i = Math.min(length, this.buffer.remaining());
+                this.buffer.get(bytes, offset, i);
+                return i;
+            }
+        }
+
+        @Override
+        public long skip(long count) {
+            int i = (int)Math.max(0L, Math.min(count, (long)this.buffer.remaining()));
+            this.buffer.position(this.buffer.position() + i);
+            return i;
+        }
+
+        @Override
+        public int available() {
+            return this.buffer.remaining();
+        }
+
+        @Override
+        public void close() {
+            if (!this.released) {
+                this.released = true;
+                MappedRegionFile.this.releaseLease(this.sector);
+            }
+        }
+    }
+}
@@ -4,7 +4,6 @@ import com.mojang.datafixers.DataFixer;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
-import java.util.function.Supplier;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.world.level.ChunkPos;
 import org.apache.commons.io.FileUtils;
@@ -22,11 +21,17 @@ public class RecreatingChunkStorage extends ChunkStorage {
     }
 
     @Override
-    public CompletableFuture<Void> write(ChunkPos p_330240_, Supplier<CompoundTag> p_366280_) {
+    public CompletableFuture<Void> write(ChunkPos p_330240_, CompletableFuture<CompoundTag> p_366280_) {
         this.handleLegacyStructureIndex(p_330240_);
         return this.writeWorker.store(p_330240_, p_366280_);
     }
 
+    @Override
+    public CompletableFuture<Void> write(ChunkPos pos, SerializableChunkData chunkData) {
+        this.handleLegacyStructureIndex(pos);
+        return this.writeWorker.store(pos, output -> StreamingChunkCodec.write(chunkData, output));
+    }
+
     @Override
     public void close() throws IOException {
         super.close();
@@ -15,6 +15,10 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nullable;
 import net.minecraft.Util;
 import net.minecraft.resources.ResourceLocation;
@@ -30,20 +34,22 @@ public class RegionFile implements AutoCloseable {
     private static final int CHUNK_HEADER_SIZE = 5;
     private static final int HEADER_OFFSET = 0;
     private static final ByteBuffer PADDING_BUFFER = ByteBuffer.allocateDirect(1);
+    private static final ByteBuffer ZERO_SECTOR = ByteBuffer.allocateDirect(4096);
     private static final String EXTERNAL_FILE_EXTENSION = ".mcc";
     private static final int EXTERNAL_STREAM_FLAG = 128;
     private static final int EXTERNAL_CHUNK_THRESHOLD = 256;
     private static final int CHUNK_NOT_PRESENT = 0;
     final RegionStorageInfo info;
     private final Path path;
-    private final FileChannel file;
+    final FileChannel file;
     private final Path externalFileDir;
     final RegionFileVersion version;
     private final ByteBuffer header = ByteBuffer.allocateDirect(8192);
-    private final IntBuffer offsets;
-    private final IntBuffer timestamps;
+    final IntBuffer offsets;
+    final IntBuffer timestamps;
     @VisibleForTesting
     protected final RegionBitmap usedSectors = new RegionBitmap();
+    private final AtomicInteger pins = new AtomicInteger();
 
     public RegionFile(RegionStorageInfo p_333062_, Path p_63633_, Path p_63634_, boolean p_63636_) throws IOException {
         this(p_333062_, p_63633_, p_63634_, RegionFileVersion.getSelected(), p_63636_);
@@ -106,7 +112,7 @@ public class RegionFile implements AutoCloseable {
         return this.path;
     }
 
-    private Path getExternalChunkPath(ChunkPos p_63685_) {
+    Path getExternalChunkPath(ChunkPos p_63685_) {
         String s = "c." + p_63685_.x + "." + p_63685_.z + ".mcc";
         return this.externalFileDir.resolve(s);
     }
@@ -155,20 +161,93 @@ public class RegionFile implements AutoCloseable {
         }
     }
 
-    private static int getTimestamp() {
+    synchronized List<RegionFile.PrefetchedChunk> readAhead(List<ChunkPos> positions) throws IOException {
+        int[] aint = new int[positions.size()];
+        long[] along = new long[positions.size()];
+        int i = 0;
+
+        for (int j = 0; j < positions.size(); j++) {
+            aint[j] = this.getOffset(positions.get(j));
+            if (aint[j] != 0) {
+                along[i++] = (long)getSectorNumber(aint[j]) << 32 | (long)j;
+            }
+        }
+
+        Arrays.sort(along, 0, i);
+        List<RegionFile.PrefetchedChunk> list = new ArrayList<>(i);
+        int k = 0;
+
+        while (k < i) {
+            int l = (int)(along[k] >>> 32);
+            int i1 = l + getNumSectors(aint[(int)along[k]]);
+            int j1 = k;
+
+            while (j1 + 1 < i) {
+                int k1 = (int)along[j1 + 1];
+                int l1 = getSectorNumber(aint[k1]);
+                int i2 = l1 + getNumSectors(aint[k1]);
+                if (l1 > i1 + 8 || i2 - l > 256) {
+                    break;
+                }
+
+                i1 = Math.max(i1, i2);
+                j1++;
+            }
+
+            ByteBuffer bytebuffer = ByteBuffer.allocate((i1 - l) * 4096);
+
+            while (bytebuffer.hasRemaining() && this.file.read(bytebuffer, (long)l * 4096L + (long)bytebuffer.position()) > 0) {
+            }
+
+            for (int j2 = k; j2 <= j1; j2++) {
+                int k2 = (int)along[j2];
+                int l2 = (getSectorNumber(aint[k2]) - l) * 4096;
+                int i3 = Math.min(getNumSectors(aint[k2]) * 4096, bytebuffer.position() - l2);
+                if (i3 >= 5) {
+                    int j3 = bytebuffer.getInt(l2) - 1;
+                    byte b0 = bytebuffer.get(l2 + 4);
+                    if (j3 > 0 && j3 <= i3 - 5 && !isExternalStreamChunk(b0)) {
+                        list.add(new RegionFile.PrefetchedChunk(positions.get(k2), b0, bytebuffer.array(), l2 + 5, j3));
+                    }
+                }
+            }
+
+            k = j1 + 1;
+        }
+
+        return list;
+    }
+
+    @Nullable
+    byte[] decompress(RegionFile.PrefetchedChunk chunk) throws IOException {
+        byte[] abyte;
+        try (DataInputStream datainputstream = this.createChunkInputStream(
+                chunk.pos(), chunk.versionId(), new ByteArrayInputStream(chunk.buffer(), chunk.offset(), chunk.length())
+            )) {
+            if (datainputstream == null) {
+                return null;
+            }
+
+            abyte = datainputstream.readAllBytes();
+        }
+
+        return abyte;
+    }
+
+    static int getTimestamp() {
         return (int)(Util.getEpochMillis() / 1000L);
     }
 
-    private static boolean isExternalStreamChunk(byte p_63639_) {
+    static boolean isExternalStreamChunk(byte p_63639_) {
         return (p_63639_ & 128) != 0;
     }
 
-    private static byte getExternalChunkVersion(byte p_63670_) {
+    static byte getExternalChunkVersion(byte p_63670_) {
         return (byte)(p_63670_ & -129);
     }
 
     @Nullable
-    private DataInputStream createChunkInputStream(ChunkPos p_63651_, byte p_63652_, InputStream p_63653_) throws IOException {
+    DataInputStream createChunkInputStream(ChunkPos p_63651_, byte p_63652_, InputStream p_63653_) throws IOException {
         RegionFileVersion regionfileversion = RegionFileVersion.fromId(p_63652_);
         if (regionfileversion == RegionFileVersion.VERSION_CUSTOM) {
             String s = new DataInputStream(p_63653_).readUTF();
@@ -189,7 +268,7 @@ public class RegionFile implements AutoCloseable {
     }
 
     @Nullable
-    private DataInputStream createExternalChunkInputStream(ChunkPos p_63648_, byte p_63649_) throws IOException {
+    DataInputStream createExternalChunkInputStream(ChunkPos p_63648_, byte p_63649_) throws IOException {
         Path path = this.getExternalChunkPath(p_63648_);
         if (!Files.isRegularFile(path)) {
             LOGGER.error("External chunk path {} is not file", path);
@@ -203,19 +282,19 @@ public class RegionFile implements AutoCloseable {
         return new ByteArrayInputStream(p_63660_.array(), p_63660_.position(), p_63661_);
     }
 
-    private int packSectorOffset(int p_63643_, int p_63644_) {
+    int packSectorOffset(int p_63643_, int p_63644_) {
         return p_63643_ << 8 | p_63644_;
     }
 
-    private static int getNumSectors(int p_63641_) {
+    static int getNumSectors(int p_63641_) {
         return p_63641_ & 0xFF;
     }
 
-    private static int getSectorNumber(int p_63672_) {
+    static int getSectorNumber(int p_63672_) {
         return p_63672_ >> 8 & 16777215;
     }
 
-    private static int sizeToSectors(int p_63677_) {
+    static int sizeToSectors(int p_63677_) {
         return (p_63677_ + 4096 - 1) / 4096;
     }
 
@@ -319,15 +398,157 @@ public class RegionFile implements AutoCloseable {
         }
     }
 
-    private ByteBuffer createExternalStub() {
+    synchronized void writeBatch(List<RegionFile.PendingChunk> chunks) throws IOException {
+        int[] aint = new int[chunks.size()];
+        int[] aint1 = new int[chunks.size() + 1];
+        ByteBuffer[] abytebuffer = new ByteBuffer[chunks.size() * 2];
+        List<RegionFile.CommitOp> list = new ArrayList<>(chunks.size());
+        int i = 0;
+
+        for (int j = 0; j < chunks.size(); j++) {
+            RegionFile.PendingChunk regionfile$pendingchunk = chunks.get(j);
+            ChunkPos chunkpos = regionfile$pendingchunk.pos();
+            ByteBuffer bytebuffer = regionfile$pendingchunk.data();
+            aint1[j] = i;
+            if (bytebuffer == null) {
+                list.add(() -> Files.deleteIfExists(this.getExternalChunkPath(chunkpos)));
+            } else {
+                int k = bytebuffer.remaining();
+                int l = sizeToSectors(k);
+                byte b0 = bytebuffer.get(4);
+                JvmProfiler.INSTANCE.onRegionFileWrite(this.info, chunkpos, RegionFileVersion.fromId(b0), k - 5 + 1);
+                if (l >= 256) {
+                    Path path = this.getExternalChunkPath(chunkpos);
+                    LOGGER.warn("Saving oversized chunk {} ({} bytes} to external file {}", chunkpos, k, path);
+                    l = 1;
+                    list.add(this.writeToExternalFile(path, bytebuffer));
+                    bytebuffer = this.createExternalStub(b0);
+                } else {
+                    list.add(() -> Files.deleteIfExists(this.getExternalChunkPath(chunkpos)));
+                }
+
+                aint[j] = l;
+                abytebuffer[i++] = bytebuffer;
+                int i1 = l * 4096 - bytebuffer.remaining();
+                if (i1 > 0) {
+                    abytebuffer[i++] = ZERO_SECTOR.duplicate().limit(i1);
+                }
+            }
+        }
+
+        aint1[chunks.size()] = i;
+        int[] aint2 = new int[chunks.size()];
+        boolean flag = false;
+
+        try {
+            for (int j1 = 0; j1 < chunks.size(); j1++) {
+                if (aint[j1] > 0) {
+                    aint2[j1] = this.allocateSectors(aint[j1]);
+                }
+            }
+
+            int k1 = 0;
+
+            while (k1 < chunks.size()) {
+                if (aint[k1] == 0) {
+                    k1++;
+                } else {
+                    int l1 = k1 + 1;
+                    int i2 = aint2[k1] + aint[k1];
+
+                    while (l1 < chunks.size() && (aint[l1] == 0 || aint2[l1] == i2)) {
+                        i2 += aint[l1];
+                        l1++;
+                    }
+
+                    this.writeSectors(aint2[k1], abytebuffer, aint1[k1], aint1[l1] - aint1[k1]);
+                    k1 = l1;
+                }
+            }
+
+            flag = true;
+        } finally {
+            if (!flag) {
+                for (int j2 = 0; j2 < chunks.size(); j2++) {
+                    if (aint2[j2] != 0) {
+                        this.freeSectors(aint2[j2], aint[j2]);
+                    }
+                }
+            }
+        }
+
+        int[] aint3 = new int[chunks.size()];
+
+        for (int k2 = 0; k2 < chunks.size(); k2++) {
+            int l2 = getOffsetIndex(chunks.get(k2).pos());
+            if (aint[k2] == 0) {
+                aint3[k2] = this.replaceOffset(l2, 0);
+            } else {
+                aint3[k2] = this.replaceOffset(l2, this.packSectorOffset(aint2[k2], aint[k2]));
+            }
+        }
+
+        this.writeHeader();
+
+        for (RegionFile.CommitOp regionfile$commitop : list) {
+            regionfile$commitop.run();
+        }
+
+        for (int i3 : aint3) {
+            if (i3 != 0) {
+                this.freeSectors(getSectorNumber(i3), getNumSectors(i3));
+            }
+        }
+    }
+
+    private void writeSectors(int sector, ByteBuffer[] buffers, int offset, int length) throws IOException {
+        this.file.position((long)sector * 4096L);
+
+        while (buffers[offset + length - 1].hasRemaining()) {
+            this.file.write(buffers, offset, length);
+        }
+    }
+
+    void pin() {
+        this.pins.incrementAndGet();
+    }
+
+    void unpin() {
+        this.pins.decrementAndGet();
+    }
+
+    boolean isPinned() {
+        return this.pins.get() > 0;
+    }
+
+    int allocateSectors(int count) {
+        return this.usedSectors.allocate(count);
+    }
+
+    void freeSectors(int sector, int count) {
+        this.usedSectors.free(sector, count);
+    }
+
+    int replaceOffset(int index, int offset) {
+        int i = this.offsets.get(index);
+        this.offsets.put(index, offset);
+        this.timestamps.put(index, getTimestamp());
+        return i;
+    }
+
+    ByteBuffer createExternalStub() {
+        return this.createExternalStub((byte)this.version.getId());
+    }
+
+    ByteBuffer createExternalStub(byte versionId) {
         ByteBuffer bytebuffer = ByteBuffer.allocate(5);
         bytebuffer.putInt(1);
-        bytebuffer.put((byte)(this.version.getId() | 128));
+        bytebuffer.put((byte)(versionId | 128));
         bytebuffer.flip();
         return bytebuffer;
     }
 
-    private RegionFile.CommitOp writeToExternalFile(Path p_63663_, ByteBuffer p_63664_) throws IOException {
+    RegionFile.CommitOp writeToExternalFile(Path p_63663_, ByteBuffer p_63664_) throws IOException {
         Path path = Files.createTempFile(this.externalFileDir, "tmp", null);
 
         try (FileChannel filechannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
@@ -338,7 +559,7 @@ public class RegionFile implements AutoCloseable {
         return () -> Files.move(path, p_63663_, StandardCopyOption.REPLACE_EXISTING);
     }
 
-    private void writeHeader() throws IOException {
+    void writeHeader() throws IOException {
         this.header.position(0);
         this.file.write(this.header, 0L);
     }
@@ -351,7 +572,7 @@ public class RegionFile implements AutoCloseable {
         return this.getOffset(p_63683_) != 0;
     }
 
-    private static int getOffsetIndex(ChunkPos p_63689_) {
+    static int getOffsetIndex(ChunkPos p_63689_) {
         return p_63689_.getRegionLocalX() + p_63689_.getRegionLocalZ() * 32;
     }
 
@@ -404,4 +625,27 @@ public class RegionFile implements AutoCloseable {
     interface CommitOp {
         void run() throws IOException;
     }
+
+    static class EncodedChunkBuffer extends ByteArrayOutputStream {
+        public EncodedChunkBuffer(RegionFileVersion version) {
+            super(8096);
+            super.write(0);
+            super.write(0);
+            super.write(0);
+            super.write(0);
+            super.write(version.getId());
+        }
+
+        public ByteBuffer toByteBuffer() {
+            ByteBuffer bytebuffer = ByteBuffer.wrap(this.buf, 0, this.count);
+            bytebuffer.putInt(0, this.count - 5 + 1);
+            return bytebuffer;
+        }
+    }
+
+    record PendingChunk(ChunkPos pos, @Nullable ByteBuffer data) {
+    }
+
+    record PrefetchedChunk(ChunkPos pos, byte versionId, byte[] buffer, int offset, int length) {
+    }
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package net.minecraft.world.level.chunk.storage;
+
+import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMaps;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+import javax.annotation.Nullable;
+import net.minecraft.FileUtil;
+import org.slf4j.Logger;
+
+public class RegionFileDictionaries {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    public static final String EXTENSION = ".dict";
+    public static final String CURRENT_FILE = "current.dict";
+    public static final int MAX_DICTIONARY_SIZE = 32768;
+    private static volatile Int2ObjectMap<byte[]> dictionaries = Int2ObjectMaps.emptyMap();
+    @Nullable
+    private static volatile byte[] current;
+
+    public static void load(Path directory) {
+        Int2ObjectMap<byte[]> int2objectmap = new Int2ObjectOpenHashMap<>();
+        byte[] abyte = null;
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> directorystream = Files.newDirectoryStream(directory, "*.dict")) {
+                for (Path path : directorystream) {
+                    byte[] abyte1 = Files.readAllBytes(path);
+                    if (abyte1.length > 0 && abyte1.length <= 32768) {
+                        int2objectmap.put(getId(abyte1), abyte1);
+                        if (path.getFileName().toString().equals("current.dict")) {
+                            abyte = abyte1;
+                        }
+                    } else {
+                        LOGGER.warn("Ignoring region compression dictionary {} with invalid size {}", path, abyte1.length);
+                    }
+                }
+            } catch (IOException ioexception) {
+                LOGGER.error("Failed to load region compression dictionaries from {}", directory, ioexception);
+            }
+        }
+
+        dictionaries = int2objectmap;
+        current = abyte;
+        if (!int2objectmap.isEmpty()) {
+            LOGGER.info("Loaded {} region compression dictionaries, current: {}", int2objectmap.size(), abyte != null ? formatId(getId(abyte)) : "none");
+        }
+    }
+
+    public static void save(Path directory, byte[] dictionary) throws IOException {
+        FileUtil.createDirectoriesSafe(directory);
+        int i = getId(dictionary);
+        Path path = directory.resolve(formatId(i) + ".dict");
+        Files.write(path, dictionary);
+        Path path1 = Files.createTempFile(directory, "current", ".tmp");
+        Files.write(path1, dictionary);
+        Files.move(path1, directory.resolve("current.dict"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        LOGGER.info("Saved region compression dictionary {} ({} bytes) to {}", formatId(i), dictionary.length, path);
+    }
+
+    public static int getId(byte[] dictionary) {
+        Adler32 adler32 = new Adler32();
+        adler32.update(dictionary);
+        return (int)adler32.getValue();
+    }
+
+    public static String formatId(int id) {
+        return String.format(Locale.ROOT, "%08x", id);
+    }
+
+    @Nullable
+    static byte[] byId(int id) {
+        return dictionaries.get(id);
+    }
+
+    static class DictionaryDeflaterOutputStream extends DeflaterOutputStream {
+        DictionaryDeflaterOutputStream(OutputStream output) {
+            super(output, createDeflater());
+        }
+
+        private static Deflater createDeflater() {
+            Deflater deflater = new Deflater();
+            byte[] abyte = RegionFileDictionaries.current;
+            if (abyte != null) {
+                deflater.setDictionary(abyte);
+            }
+
+            return deflater;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                this.def.end();
+            }
+        }
+    }
+
+    static class DictionaryInflaterInputStream extends InflaterInputStream {
+        DictionaryInflaterInputStream(InputStream input) {
+            super(input, new Inflater());
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            while (true) {
+                int i = super.read(bytes, offset, length);
+                if (i != -1 || !this.inf.needsDictionary()) {
+                    return i;
+                }
+
+                int j = this.inf.getAdler();
+                byte[] abyte = RegionFileDictionaries.byId(j);
+                if (abyte == null) {
+                    throw new ZipException("Missing region compression dictionary " + RegionFileDictionaries.formatId(j));
+                }
+
+                this.inf.setDictionary(abyte);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                this.inf.end();
+            }
+        }
+    }
+}
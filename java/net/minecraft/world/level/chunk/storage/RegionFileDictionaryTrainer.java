@@ -0,0 +1,168 @@
+package net.minecraft.world.level.chunk.storage;
+
+import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import org.slf4j.Logger;
+
+public class RegionFileDictionaryTrainer {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final int GRAM_LENGTH = 8;
+    private static final int SEGMENT_LENGTH = 48;
+    private static final int MIN_FREQUENCY = 4;
+    private static final long MAX_SAMPLE_BYTES = 67108864L;
+    private static final int GRAM_SAMPLE_MASK = 7;
+    private static final int MAX_GRAMS = 4194304;
+    private final List<byte[]> samples = new ArrayList<>();
+    private long sampleBytes;
+
+    public static byte[] trainFromWorld(Path levelDirectory) throws IOException {
+        List<Path> list;
+        try (Stream<Path> stream = Files.walk(levelDirectory)) {
+            list = stream.filter(path -> path.getFileName().toString().endsWith(".mca"))
+                .filter(path -> path.getParent() != null && path.getParent().getFileName().toString().equals("region"))
+                .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+        }
+
+        Collections.shuffle(list, new Random(0L));
+        RegionFileDictionaryTrainer regionfiledictionarytrainer = new RegionFileDictionaryTrainer();
+
+        for (Path path : list) {
+            if (regionfiledictionarytrainer.isFull()) {
+                break;
+            }
+
+            regionfiledictionarytrainer.addRegion(path);
+        }
+
+        LOGGER.info("Training region compression dictionary from {} chunks ({} bytes)", regionfiledictionarytrainer.samples.size(), regionfiledictionarytrainer.sampleBytes);
+        return regionfiledictionarytrainer.train(32768);
+    }
+
+    private boolean isFull() {
+        return this.sampleBytes >= 67108864L;
+    }
+
+    private void addRegion(Path path) {
+        RegionStorageInfo regionstorageinfo = new RegionStorageInfo("dictionary", Level.OVERWORLD, "chunk");
+
+        try (RegionFile regionfile = new RegionFile(regionstorageinfo, path, path.getParent(), false)) {
+            ChunkPos chunkpos = regionOrigin(path);
+
+            for (int i = 0; i < 1024 && !this.isFull(); i++) {
+                ChunkPos chunkpos1 = new ChunkPos(chunkpos.x + (i & 31), chunkpos.z + (i >> 5));
+                if (regionfile.hasChunk(chunkpos1)) {
+                    try (DataInputStream datainputstream = regionfile.getChunkDataInputStream(chunkpos1)) {
+                        if (datainputstream != null) {
+                            byte[] abyte = datainputstream.readAllBytes();
+                            this.samples.add(abyte);
+                            this.sampleBytes += abyte.length;
+                        }
+                    } catch (IOException ioexception) {
+                        LOGGER.warn("Failed to sample chunk {} from region file {}", chunkpos1, path, ioexception);
+                    }
+                }
+            }
+        } catch (IOException ioexception) {
+            LOGGER.warn("Failed to sample region file {}", path, ioexception);
+        }
+    }
+
+    private static ChunkPos regionOrigin(Path path) {
+        String[] astring = path.getFileName().toString().split("\\.");
+
+        try {
+            return astring.length == 4 ? ChunkPos.minFromRegion(Integer.parseInt(astring[1]), Integer.parseInt(astring[2])) : ChunkPos.ZERO;
+        } catch (NumberFormatException numberformatexception) {
+            return ChunkPos.ZERO;
+        }
+    }
+
+    byte[] train(int maxSize) {
+        Long2IntOpenHashMap long2intopenhashmap = new Long2IntOpenHashMap();
+        Long2LongOpenHashMap long2longopenhashmap = new Long2LongOpenHashMap();
+        LongSet longset = new LongOpenHashSet();
+
+        for (int i = 0; i < this.samples.size(); i++) {
+            byte[] abyte = this.samples.get(i);
+            longset.clear();
+
+            for (int j = 0; j + 8 <= abyte.length; j++) {
+                long k = readGram(abyte, j);
+                if ((HashCommon.mix(k) & 7L) == 0L
+                    && (long2intopenhashmap.size() < 4194304 || long2intopenhashmap.containsKey(k))
+                    && longset.add(k)) {
+                    long2intopenhashmap.addTo(k, 1);
+                    long2longopenhashmap.putIfAbsent(k, (long)i << 32 | (long)j);
+                }
+            }
+        }
+
+        LongList longlist = new LongArrayList();
+        long2intopenhashmap.long2IntEntrySet().fastForEach(entry -> {
+            if (entry.getIntValue() >= 4) {
+                longlist.add(entry.getLongKey());
+            }
+        });
+        longlist.sort((left, right) -> Integer.compare(long2intopenhashmap.get(right), long2intopenhashmap.get(left)));
+        LongSet longset1 = new LongOpenHashSet();
+        List<byte[]> list = new ArrayList<>();
+        int l = 0;
+
+        for (int i1 = 0; i1 < longlist.size() && l < maxSize; i1++) {
+            long j1 = longlist.getLong(i1);
+            if (!longset1.contains(j1)) {
+                long k1 = long2longopenhashmap.get(j1);
+                byte[] abyte1 = this.samples.get((int)(k1 >>> 32));
+                int l1 = (int)k1;
+                int i2 = Math.min(Math.min(48, abyte1.length - l1), maxSize - l);
+                byte[] abyte2 = new byte[i2];
+                System.arraycopy(abyte1, l1, abyte2, 0, i2);
+
+                for (int j2 = 0; j2 + 8 <= i2; j2++) {
+                    longset1.add(readGram(abyte2, j2));
+                }
+
+                list.add(abyte2);
+                l += i2;
+            }
+        }
+
+        byte[] abyte3 = new byte[l];
+        int k2 = 0;
+
+        for (int l2 = list.size() - 1; l2 >= 0; l2--) {
+            byte[] abyte4 = list.get(l2);
+            System.arraycopy(abyte4, 0, abyte3, k2, abyte4.length);
+            k2 += abyte4.length;
+        }
+
+        return abyte3;
+    }
+
+    private static long readGram(byte[] bytes, int offset) {
+        long i = 0L;
+
+        for (int j = 0; j < 8; j++) {
+            i = i << 8 | (long)(bytes[offset + j] & 255);
+        }
+
+        return i;
+    }
+}
@@ -1,10 +1,20 @@
 package net.minecraft.world.level.chunk.storage;
 
+import com.mojang.logging.LogUtils;
 import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongBidirectionalIterator;
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
 import java.io.DataInputStream;
+import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import net.minecraft.FileUtil;
 import net.minecraft.nbt.CompoundTag;
@@ -13,53 +23,106 @@ import net.minecraft.nbt.NbtIo;
 import net.minecraft.nbt.StreamTagVisitor;
 import net.minecraft.util.ExceptionCollector;
 import net.minecraft.world.level.ChunkPos;
+import org.slf4j.Logger;
 
 public final class RegionFileStorage implements AutoCloseable {
+    private static final Logger LOGGER = LogUtils.getLogger();
     public static final String ANVIL_EXTENSION = ".mca";
     private static final int MAX_CACHE_SIZE = 256;
+    private static volatile RegionFileStorage.Backend selectedBackend = RegionFileStorage.Backend.CHANNEL;
     private final Long2ObjectLinkedOpenHashMap<RegionFile> regionCache = new Long2ObjectLinkedOpenHashMap<>();
     private final RegionStorageInfo info;
     private final Path folder;
     private final boolean sync;
+    private final RegionFileStorage.Backend backend;
 
     RegionFileStorage(RegionStorageInfo p_330451_, Path p_196954_, boolean p_196955_) {
         this.folder = p_196954_;
         this.sync = p_196955_;
         this.info = p_330451_;
+        this.backend = selectedBackend;
     }
 
-    private RegionFile getRegionFile(ChunkPos p_63712_) throws IOException {
-        long i = ChunkPos.asLong(p_63712_.getRegionX(), p_63712_.getRegionZ());
+    public static void configureBackend(String name) {
+        for (RegionFileStorage.Backend regionfilestorage$backend : RegionFileStorage.Backend.values()) {
+            if (regionfilestorage$backend.name.equals(name)) {
+                selectedBackend = regionfilestorage$backend;
+                return;
+            }
+        }
+
+        LOGGER.error(
+            "Invalid `region-file-backend` value `{}` in server.properties. Please use one of: {}",
+            name,
+            Arrays.stream(RegionFileStorage.Backend.values()).map(backend -> backend.name).collect(Collectors.joining(", "))
+        );
+    }
+
+    public boolean supportsConcurrentReads() {
+        return this.backend.concurrentReads;
+    }
+
+    RegionFile getRegionFile(ChunkPos p_63712_) throws IOException {
+        return this.getRegionFile(p_63712_, true);
+    }
+
+    @Nullable
+    RegionFile getRegionFile(ChunkPos pos, boolean create) throws IOException {
+        long i = ChunkPos.asLong(pos.getRegionX(), pos.getRegionZ());
         RegionFile regionfile = this.regionCache.getAndMoveToFirst(i);
         if (regionfile != null) {
             return regionfile;
         } else {
+            Path path = this.folder.resolve("r." + pos.getRegionX() + "." + pos.getRegionZ() + ".mca");
+            if (!create && !Files.isRegularFile(path)) {
+                return null;
+            }
+
             if (this.regionCache.size() >= 256) {
-                this.regionCache.removeLast().close();
+                this.evictUnpinned();
             }
 
             FileUtil.createDirectoriesSafe(this.folder);
-            Path path = this.folder.resolve("r." + p_63712_.getRegionX() + "." + p_63712_.getRegionZ() + ".mca");
-            RegionFile regionfile1 = new RegionFile(this.info, path, this.folder, this.sync);
+            RegionFile regionfile1 = this.backend == RegionFileStorage.Backend.MAPPED
+                ? new MappedRegionFile(this.info, path, this.folder, this.sync)
+                : new RegionFile(this.info, path, this.folder, this.sync);
             this.regionCache.putAndMoveToFirst(i, regionfile1);
             return regionfile1;
         }
     }
 
+    private void evictUnpinned() throws IOException {
+        LongBidirectionalIterator longbidirectionaliterator = this.regionCache.keySet().iterator(this.regionCache.lastLongKey());
+
+        while (longbidirectionaliterator.hasPrevious()) {
+            long i = longbidirectionaliterator.previousLong();
+            RegionFile regionfile = this.regionCache.get(i);
+            if (!regionfile.isPinned()) {
+                this.regionCache.remove(i);
+                regionfile.close();
+                return;
+            }
+        }
+    }
+
     @Nullable
     public CompoundTag read(ChunkPos p_63707_) throws IOException {
-        RegionFile regionfile = this.getRegionFile(p_63707_);
+        return read(this.getRegionFile(p_63707_), p_63707_, NbtIo::read);
+    }
+
+    @Nullable
+    static <T> T read(RegionFile regionFile, ChunkPos pos, RegionFileStorage.ChunkReader<T> reader) throws IOException {
+        T t;
 
-        CompoundTag compoundtag;
-        try (DataInputStream datainputstream = regionfile.getChunkDataInputStream(p_63707_)) {
+        try (DataInputStream datainputstream = regionFile.getChunkDataInputStream(pos)) {
             if (datainputstream == null) {
                 return null;
             }
 
-            compoundtag = NbtIo.read(datainputstream);
+            t = reader.read(datainputstream);
         }
 
-        return compoundtag;
+        return t;
     }
 
     public void scanChunk(ChunkPos p_196957_, StreamTagVisitor p_196958_) throws IOException {
@@ -83,6 +146,50 @@ public final class RegionFileStorage implements AutoCloseable {
         }
     }
 
+    static RegionFile.PendingChunk encode(ChunkPos pos, @Nullable CompoundTag tag, RegionFileVersion version) throws IOException {
+        return tag == null ? new RegionFile.PendingChunk(pos, null) : encode(pos, output -> NbtIo.write(tag, output), version);
+    }
+
+    static RegionFile.PendingChunk encode(ChunkPos pos, RegionFileStorage.ChunkWriter writer, RegionFileVersion version) throws IOException {
+        RegionFile.EncodedChunkBuffer regionfile$encodedchunkbuffer = new RegionFile.EncodedChunkBuffer(version);
+
+        try (DataOutputStream dataoutputstream = new DataOutputStream(version.wrap(regionfile$encodedchunkbuffer))) {
+            writer.write(dataoutputstream);
+        }
+
+        return new RegionFile.PendingChunk(pos, regionfile$encodedchunkbuffer.toByteBuffer());
+    }
+
+    @Nullable
+    static <T> T decode(RegionFile.PendingChunk chunk, RegionFileStorage.ChunkReader<T> reader) throws IOException {
+        ByteBuffer bytebuffer = chunk.data();
+        if (bytebuffer == null) {
+            return null;
+        } else {
+            byte[] abyte = bytebuffer.array();
+            int i = bytebuffer.arrayOffset();
+            RegionFileVersion regionfileversion = RegionFileVersion.fromId(abyte[i + 4]);
+            if (regionfileversion == null) {
+                throw new IOException("Chunk " + chunk.pos() + " has invalid compression type " + abyte[i + 4]);
+            } else {
+                T t;
+                try (DataInputStream datainputstream = new DataInputStream(
+                        regionfileversion.wrap(new ByteArrayInputStream(abyte, i + 5, bytebuffer.limit() - 5))
+                    )) {
+                    t = reader.read(datainputstream);
+                }
+
+                return t;
+            }
+        }
+    }
+
+    void writeBatch(List<RegionFile.PendingChunk> chunks) throws IOException {
+        if (!chunks.isEmpty()) {
+            this.getRegionFile(chunks.get(0).pos()).writeBatch(chunks);
+        }
+    }
+
     @Override
     public void close() throws IOException {
         ExceptionCollector<IOException> exceptioncollector = new ExceptionCollector<>();
@@ -107,4 +214,27 @@ public final class RegionFileStorage implements AutoCloseable {
     public RegionStorageInfo info() {
         return this.info;
     }
+
+    @FunctionalInterface
+    public interface ChunkReader<T> {
+        T read(DataInput input) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface ChunkWriter {
+        void write(DataOutput output) throws IOException;
+    }
+
+    public static enum Backend {
+        CHANNEL("channel", false),
+        MAPPED("mapped", true);
+
+        final String name;
+        final boolean concurrentReads;
+
+        private Backend(final String name, final boolean concurrentReads) {
+            this.name = name;
+            this.concurrentReads = concurrentReads;
+        }
+    }
 }
\ No newline at end of file
@@ -48,6 +48,14 @@ public class RegionFileVersion {
             p_327421_ -> new BufferedOutputStream(new LZ4BlockOutputStream(p_327421_))
         )
     );
+    public static final RegionFileVersion VERSION_DEFLATE_DICTIONARY = register(
+        new RegionFileVersion(
+            5,
+            "deflate-dictionary",
+            input -> new FastBufferedInputStream(new RegionFileDictionaries.DictionaryInflaterInputStream(input)),
+            output -> new BufferedOutputStream(new RegionFileDictionaries.DictionaryDeflaterOutputStream(output))
+        )
+    );
     public static final RegionFileVersion VERSION_CUSTOM = register(new RegionFileVersion(127, null, p_327423_ -> {
         throw new UnsupportedOperationException();
     }, p_327424_ -> {
@@ -110,6 +110,13 @@ public record SerializableChunkData(
 
     @Nullable
     public static SerializableChunkData parse(LevelHeightAccessor p_366637_, RegistryAccess p_364474_, CompoundTag p_368975_) {
+        return parse(p_366637_, p_364474_, p_368975_, null);
+    }
+
+    @Nullable
+    static SerializableChunkData parse(
+        LevelHeightAccessor p_366637_, RegistryAccess p_364474_, CompoundTag p_368975_, @Nullable List<SerializableChunkData.SectionData> sections
+    ) {
         if (!p_368975_.contains("Status", 8)) {
             return null;
         } else {
@@ -182,46 +189,10 @@ public record SerializableChunkData(
             List<CompoundTag> list3 = Lists.transform(p_368975_.getList("entities", 10), p_364930_ -> (CompoundTag)p_364930_);
             List<CompoundTag> list4 = Lists.transform(p_368975_.getList("block_entities", 10), p_370018_ -> (CompoundTag)p_370018_);
             CompoundTag compoundtag2 = p_368975_.getCompound("structures");
-            ListTag listtag2 = p_368975_.getList("sections", 10);
-            List<SerializableChunkData.SectionData> list = new ArrayList<>(listtag2.size());
             Registry<Biome> registry = p_364474_.lookupOrThrow(Registries.BIOME);
-            Codec<PalettedContainerRO<Holder<Biome>>> codec = makeBiomeCodec(registry);
-
-            for (int i1 = 0; i1 < listtag2.size(); i1++) {
-                CompoundTag compoundtag1 = listtag2.getCompound(i1);
-                int j1 = compoundtag1.getByte("Y");
-                LevelChunkSection levelchunksection;
-                if (j1 >= p_366637_.getMinSectionY() && j1 <= p_366637_.getMaxSectionY()) {
-                    PalettedContainer<BlockState> palettedcontainer;
-                    if (compoundtag1.contains("block_states", 10)) {
-                        palettedcontainer = BLOCK_STATE_CODEC.parse(NbtOps.INSTANCE, compoundtag1.getCompound("block_states"))
-                            .promotePartial(p_362514_ -> logErrors(chunkpos, j1, p_362514_))
-                            .getOrThrow(SerializableChunkData.ChunkReadException::new);
-                    } else {
-                        palettedcontainer = new PalettedContainer<>(Block.BLOCK_STATE_REGISTRY, Blocks.AIR.defaultBlockState(), PalettedContainer.Strategy.SECTION_STATES);
-                    }
-
-                    PalettedContainerRO<Holder<Biome>> palettedcontainerro;
-                    if (compoundtag1.contains("biomes", 10)) {
-                        palettedcontainerro = codec.parse(NbtOps.INSTANCE, compoundtag1.getCompound("biomes"))
-                            .promotePartial(p_362842_ -> logErrors(chunkpos, j1, p_362842_))
-                            .getOrThrow(SerializableChunkData.ChunkReadException::new);
-                    } else {
-                        palettedcontainerro = new PalettedContainer<>(
-                            registry.asHolderIdMap(), registry.getOrThrow(Biomes.PLAINS), PalettedContainer.Strategy.SECTION_BIOMES
-                        );
-                    }
-
-                    levelchunksection = new LevelChunkSection(palettedcontainer, palettedcontainerro);
-                } else {
-                    levelchunksection = null;
-                }
-
-                DataLayer datalayer = compoundtag1.contains("BlockLight", 7) ? new DataLayer(compoundtag1.getByteArray("BlockLight")) : null;
-                DataLayer datalayer1 = compoundtag1.contains("SkyLight", 7) ? new DataLayer(compoundtag1.getByteArray("SkyLight")) : null;
-                list.add(new SerializableChunkData.SectionData(j1, levelchunksection, datalayer, datalayer1));
-            }
-
+            List<SerializableChunkData.SectionData> list = sections != null
+                ? sections
+                : parseSections(p_366637_, registry, chunkpos, p_368975_.getList("sections", 10));
             return new SerializableChunkData(
                 registry,
                 chunkpos,
@@ -245,6 +216,50 @@ public record SerializableChunkData(
         }
     }
 
+    private static List<SerializableChunkData.SectionData> parseSections(
+        LevelHeightAccessor heightAccessor, Registry<Biome> registry, ChunkPos chunkpos, ListTag listtag
+    ) {
+        List<SerializableChunkData.SectionData> list = new ArrayList<>(listtag.size());
+        Codec<PalettedContainerRO<Holder<Biome>>> codec = makeBiomeCodec(registry);
+
+        for (int i1 = 0; i1 < listtag.size(); i1++) {
+            CompoundTag compoundtag1 = listtag.getCompound(i1);
+            int j1 = compoundtag1.getByte("Y");
+            LevelChunkSection levelchunksection;
+            if (j1 >= heightAccessor.getMinSectionY() && j1 <= heightAccessor.getMaxSectionY()) {
+                PalettedContainer<BlockState> palettedcontainer;
+                if (compoundtag1.contains("block_states", 10)) {
+                    palettedcontainer = BLOCK_STATE_CODEC.parse(NbtOps.INSTANCE, compoundtag1.getCompound("block_states"))
+                        .promotePartial(p_362514_ -> logErrors(chunkpos, j1, p_362514_))
+                        .getOrThrow(SerializableChunkData.ChunkReadException::new);
+                } else {
+                    palettedcontainer = new PalettedContainer<>(Block.BLOCK_STATE_REGISTRY, Blocks.AIR.defaultBlockState(), PalettedContainer.Strategy.SECTION_STATES);
+                }
+
+                PalettedContainerRO<Holder<Biome>> palettedcontainerro;
+                if (compoundtag1.contains("biomes", 10)) {
+                    palettedcontainerro = codec.parse(NbtOps.INSTANCE, compoundtag1.getCompound("biomes"))
+                        .promotePartial(p_362842_ -> logErrors(chunkpos, j1, p_362842_))
+                        .getOrThrow(SerializableChunkData.ChunkReadException::new);
+                } else {
+                    palettedcontainerro = new PalettedContainer<>(
+                        registry.asHolderIdMap(), registry.getOrThrow(Biomes.PLAINS), PalettedContainer.Strategy.SECTION_BIOMES
+                    );
+                }
+
+                levelchunksection = new LevelChunkSection(palettedcontainer, palettedcontainerro);
+            } else {
+                levelchunksection = null;
+            }
+
+            DataLayer datalayer = compoundtag1.contains("BlockLight", 7) ? new DataLayer(compoundtag1.getByteArray("BlockLight")) : null;
+            DataLayer datalayer1 = compoundtag1.contains("SkyLight", 7) ? new DataLayer(compoundtag1.getByteArray("SkyLight")) : null;
+            list.add(new SerializableChunkData.SectionData(j1, levelchunksection, datalayer, datalayer1));
+        }
+
+        return list;
+    }
+
     public ProtoChunk read(ServerLevel p_368634_, PoiManager p_362734_, RegionStorageInfo p_366907_, ChunkPos p_363624_) {
         if (!Objects.equals(p_363624_, this.chunkPos)) {
             LOGGER.error("Chunk file at {} is in the wrong location; relocating. (Expected {}, got {})", p_363624_, p_363624_, this.chunkPos);
@@ -359,7 +374,7 @@ public record SerializableChunkData(
         }
     }
 
-    private static void logErrors(ChunkPos p_362005_, int p_366847_, String p_369695_) {
+    static void logErrors(ChunkPos p_362005_, int p_366847_, String p_369695_) {
         LOGGER.error("Recoverable errors when loading section [{}, {}, {}]: {}", p_362005_.x, p_366847_, p_362005_.z, p_369695_);
     }
 
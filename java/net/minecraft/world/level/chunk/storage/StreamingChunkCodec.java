@@ -0,0 +1,538 @@
+package net.minecraft.world.level.chunk.storage;
+
+import com.mojang.datafixers.util.Either;
+import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.shorts.ShortList;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Map.Entry;
+import javax.annotation.Nullable;
+import net.minecraft.SharedConstants;
+import net.minecraft.core.Holder;
+import net.minecraft.core.Registry;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.nbt.NumericTag;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.nbt.TagTypes;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.LevelHeightAccessor;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.biome.Biomes;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.block.state.properties.Property;
+import net.minecraft.world.level.chunk.DataLayer;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import net.minecraft.world.level.chunk.PalettedContainerRO;
+import net.minecraft.world.level.chunk.status.ChunkType;
+import net.minecraft.world.level.levelgen.BelowZeroRetrogen;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.levelgen.blending.BlendingData;
+import net.minecraft.world.level.material.Fluid;
+import net.minecraft.world.ticks.SavedTick;
+import org.slf4j.Logger;
+
+public class StreamingChunkCodec {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    public static void write(SerializableChunkData chunkData, DataOutput output) throws IOException {
+        DataOutput dataoutput = new NbtIo.StringFallbackDataOutput(output);
+        dataoutput.writeByte(10);
+        dataoutput.writeUTF("");
+        writeName(dataoutput, 3, "DataVersion");
+        dataoutput.writeInt(SharedConstants.getCurrentVersion().getDataVersion().getVersion());
+        writeName(dataoutput, 3, "xPos");
+        dataoutput.writeInt(chunkData.chunkPos().x);
+        writeName(dataoutput, 3, "yPos");
+        dataoutput.writeInt(chunkData.minSectionY());
+        writeName(dataoutput, 3, "zPos");
+        dataoutput.writeInt(chunkData.chunkPos().z);
+        writeName(dataoutput, 4, "LastUpdate");
+        dataoutput.writeLong(chunkData.lastUpdateTime());
+        writeName(dataoutput, 4, "InhabitedTime");
+        dataoutput.writeLong(chunkData.inhabitedTime());
+        writeName(dataoutput, 8, "Status");
+        dataoutput.writeUTF(BuiltInRegistries.CHUNK_STATUS.getKey(chunkData.chunkStatus()).toString());
+        if (chunkData.blendingData() != null) {
+            Optional<Tag> optional = BlendingData.Packed.CODEC.encodeStart(NbtOps.INSTANCE, chunkData.blendingData()).resultOrPartial(LOGGER::error);
+            if (optional.isPresent()) {
+                writeTag(dataoutput, "blending_data", optional.get());
+            }
+        }
+
+        if (chunkData.belowZeroRetrogen() != null) {
+            Optional<Tag> optional1 = BelowZeroRetrogen.CODEC.encodeStart(NbtOps.INSTANCE, chunkData.belowZeroRetrogen()).resultOrPartial(LOGGER::error);
+            if (optional1.isPresent()) {
+                writeTag(dataoutput, "below_zero_retrogen", optional1.get());
+            }
+        }
+
+        if (!chunkData.upgradeData().isEmpty()) {
+            writeTag(dataoutput, "UpgradeData", chunkData.upgradeData().write());
+        }
+
+        writeSections(dataoutput, chunkData);
+        if (chunkData.lightCorrect()) {
+            writeName(dataoutput, 1, "isLightOn");
+            dataoutput.writeByte(1);
+        }
+
+        writeCompoundList(dataoutput, "block_entities", chunkData.blockEntities());
+        if (chunkData.chunkStatus().getChunkType() == ChunkType.PROTOCHUNK) {
+            writeCompoundList(dataoutput, "entities", chunkData.entities());
+            if (chunkData.carvingMask() != null) {
+                writeName(dataoutput, 12, "carving_mask");
+                writeLongArray(dataoutput, chunkData.carvingMask());
+            }
+        }
+
+        List<SavedTick<Block>> list = chunkData.packedTicks().blocks();
+        writeListHeader(dataoutput, "block_ticks", 10, list.size());
+
+        for (SavedTick<Block> savedtick : list) {
+            savedtick.save(block -> BuiltInRegistries.BLOCK.getKey(block).toString()).write(dataoutput);
+        }
+
+        List<SavedTick<Fluid>> list1 = chunkData.packedTicks().fluids();
+        writeListHeader(dataoutput, "fluid_ticks", 10, list1.size());
+
+        for (SavedTick<Fluid> savedtick1 : list1) {
+            savedtick1.save(fluid -> BuiltInRegistries.FLUID.getKey(fluid).toString()).write(dataoutput);
+        }
+
+        ShortList[] ashortlist = chunkData.postProcessingSections();
+        writeListHeader(dataoutput, "PostProcessing", 9, ashortlist.length);
+
+        for (ShortList shortlist : ashortlist) {
+            int i = shortlist != null ? shortlist.size() : 0;
+            dataoutput.writeByte(i > 0 ? 2 : 0);
+            dataoutput.writeInt(i);
+
+            for (int j = 0; j < i; j++) {
+                dataoutput.writeShort(shortlist.getShort(j));
+            }
+        }
+
+        writeName(dataoutput, 10, "Heightmaps");
+
+        for (Entry<Heightmap.Types, long[]> entry : chunkData.heightmaps().entrySet()) {
+            writeName(dataoutput, 12, entry.getKey().getSerializationKey());
+            writeLongArray(dataoutput, entry.getValue());
+        }
+
+        dataoutput.writeByte(0);
+        writeTag(dataoutput, "structures", chunkData.structureData());
+        dataoutput.writeByte(0);
+    }
+
+    private static void writeSections(DataOutput output, SerializableChunkData chunkData) throws IOException {
+        int i = 0;
+
+        for (SerializableChunkData.SectionData serializablechunkdata$sectiondata : chunkData.sectionData()) {
+            if (hasContent(serializablechunkdata$sectiondata)) {
+                i++;
+            }
+        }
+
+        writeListHeader(output, "sections", 10, i);
+        Registry<Biome> registry = chunkData.biomeRegistry();
+
+        for (SerializableChunkData.SectionData serializablechunkdata$sectiondata1 : chunkData.sectionData()) {
+            if (hasContent(serializablechunkdata$sectiondata1)) {
+                LevelChunkSection levelchunksection = serializablechunkdata$sectiondata1.chunkSection();
+                if (levelchunksection != null) {
+                    PalettedContainerRO.RawPackedData<BlockState> palettedcontainerro$rawpackeddata = levelchunksection.getStates()
+                        .packRaw(Block.BLOCK_STATE_REGISTRY, PalettedContainer.Strategy.SECTION_STATES);
+                    writeName(output, 10, "block_states");
+                    writeListHeader(output, "palette", 10, palettedcontainerro$rawpackeddata.paletteEntries().size());
+
+                    for (BlockState blockstate : palettedcontainerro$rawpackeddata.paletteEntries()) {
+                        writeBlockState(output, blockstate);
+                    }
+
+                    writePackedStorage(output, palettedcontainerro$rawpackeddata.storage());
+                    PalettedContainerRO.RawPackedData<Holder<Biome>> palettedcontainerro$rawpackeddata1 = levelchunksection.getBiomes()
+                        .packRaw(registry.asHolderIdMap(), PalettedContainer.Strategy.SECTION_BIOMES);
+                    writeName(output, 10, "biomes");
+                    writeListHeader(output, "palette", 8, palettedcontainerro$rawpackeddata1.paletteEntries().size());
+
+                    for (Holder<Biome> holder : palettedcontainerro$rawpackeddata1.paletteEntries()) {
+                        output.writeUTF(holder.unwrapKey().orElseThrow(() -> new IllegalStateException("Unregistered biome " + holder)).location().toString());
+                    }
+
+                    writePackedStorage(output, palettedcontainerro$rawpackeddata1.storage());
+                }
+
+                if (serializablechunkdata$sectiondata1.blockLight() != null) {
+                    writeName(output, 7, "BlockLight");
+                    writeByteArray(output, serializablechunkdata$sectiondata1.blockLight().getData());
+                }
+
+                if (serializablechunkdata$sectiondata1.skyLight() != null) {
+                    writeName(output, 7, "SkyLight");
+                    writeByteArray(output, serializablechunkdata$sectiondata1.skyLight().getData());
+                }
+
+                writeName(output, 1, "Y");
+                output.writeByte(serializablechunkdata$sectiondata1.y());
+                output.writeByte(0);
+            }
+        }
+    }
+
+    private static boolean hasContent(SerializableChunkData.SectionData section) {
+        return section.chunkSection() != null || section.blockLight() != null || section.skyLight() != null;
+    }
+
+    private static void writeBlockState(DataOutput output, BlockState state) throws IOException {
+        writeName(output, 8, "Name");
+        output.writeUTF(BuiltInRegistries.BLOCK.getKey(state.getBlock()).toString());
+        Map<Property<?>, Comparable<?>> map = state.getValues();
+        if (!map.isEmpty()) {
+            writeName(output, 10, "Properties");
+
+            for (Entry<Property<?>, Comparable<?>> entry : map.entrySet()) {
+                writeName(output, 8, entry.getKey().getName());
+                output.writeUTF(getValueName(entry.getKey(), entry.getValue()));
+            }
+
+            output.writeByte(0);
+        }
+
+        output.writeByte(0);
+    }
+
+    private static <T extends Comparable<T>> String getValueName(Property<T> property, Comparable<?> value) {
+        return property.getName((T)value);
+    }
+
+    private static void writePackedStorage(DataOutput output, @Nullable long[] storage) throws IOException {
+        if (storage != null) {
+            writeName(output, 12, "data");
+            writeLongArray(output, storage);
+        }
+
+        output.writeByte(0);
+    }
+
+    private static void writeCompoundList(DataOutput output, String name, List<CompoundTag> tags) throws IOException {
+        writeListHeader(output, name, 10, tags.size());
+
+        for (CompoundTag compoundtag : tags) {
+            compoundtag.write(output);
+        }
+    }
+
+    private static void writeListHeader(DataOutput output, String name, int elementType, int size) throws IOException {
+        writeName(output, 9, name);
+        output.writeByte(size > 0 ? elementType : 0);
+        output.writeInt(size);
+    }
+
+    private static void writeTag(DataOutput output, String name, Tag tag) throws IOException {
+        writeName(output, tag.getId(), name);
+        tag.write(output);
+    }
+
+    private static void writeName(DataOutput output, int type, String name) throws IOException {
+        output.writeByte(type);
+        output.writeUTF(name);
+    }
+
+    private static void writeLongArray(DataOutput output, long[] values) throws IOException {
+        output.writeInt(values.length);
+
+        for (long i : values) {
+            output.writeLong(i);
+        }
+    }
+
+    private static void writeByteArray(DataOutput output, byte[] values) throws IOException {
+        output.writeInt(values.length);
+        output.write(values);
+    }
+
+    public static Either<SerializableChunkData, CompoundTag> read(
+        DataInput input, ChunkPos pos, LevelHeightAccessor heightAccessor, RegistryAccess registryAccess
+    ) throws IOException {
+        NbtAccounter nbtaccounter = NbtAccounter.unlimitedHeap();
+        if (input.readByte() != 10) {
+            throw new IOException("Root tag must be a named compound tag");
+        } else {
+            StringTag.skipString(input);
+            int i = SharedConstants.getCurrentVersion().getDataVersion().getVersion();
+            Registry<Biome> registry = registryAccess.lookupOrThrow(Registries.BIOME);
+            CompoundTag compoundtag = new CompoundTag();
+            List<SerializableChunkData.SectionData> list = null;
+
+            while (true) {
+                byte b0 = input.readByte();
+                if (b0 == 0) {
+                    if (list != null) {
+                        SerializableChunkData serializablechunkdata = SerializableChunkData.parse(heightAccessor, registryAccess, compoundtag, list);
+                        if (serializablechunkdata != null) {
+                            return Either.left(serializablechunkdata);
+                        }
+                    }
+
+                    return Either.right(compoundtag);
+                }
+
+                String s = input.readUTF();
+                if (b0 == 9 && s.equals("sections") && list == null && ChunkStorage.getVersion(compoundtag) == i) {
+                    list = readSections(input, nbtaccounter, pos, heightAccessor, registry);
+                } else {
+                    compoundtag.put(s, TagTypes.getType(b0).load(input, nbtaccounter));
+                }
+            }
+        }
+    }
+
+    private static List<SerializableChunkData.SectionData> readSections(
+        DataInput input, NbtAccounter accounter, ChunkPos pos, LevelHeightAccessor heightAccessor, Registry<Biome> registry
+    ) throws IOException {
+        byte b0 = input.readByte();
+        int i = input.readInt();
+        if (b0 != 10) {
+            for (int j = 0; j < i; j++) {
+                TagTypes.getType(b0).skip(input, accounter);
+            }
+
+            return List.of();
+        } else {
+            List<SerializableChunkData.SectionData> list = new ArrayList<>(i);
+
+            for (int k = 0; k < i; k++) {
+                list.add(readSection(input, accounter, pos, heightAccessor, registry));
+            }
+
+            return list;
+        }
+    }
+
+    private static SerializableChunkData.SectionData readSection(
+        DataInput input, NbtAccounter accounter, ChunkPos pos, LevelHeightAccessor heightAccessor, Registry<Biome> registry
+    ) throws IOException {
+        int i = 0;
+        PalettedContainerRO.RawPackedData<BlockState> palettedcontainerro$rawpackeddata = null;
+        PalettedContainerRO.RawPackedData<Holder<Biome>> palettedcontainerro$rawpackeddata1 = null;
+        DataLayer datalayer = null;
+        DataLayer datalayer1 = null;
+        List<String> list = new ArrayList<>();
+
+        while (true) {
+            byte b0 = input.readByte();
+            if (b0 == 0) {
+                LevelChunkSection levelchunksection = null;
+                if (i >= heightAccessor.getMinSectionY() && i <= heightAccessor.getMaxSectionY()) {
+                    PalettedContainer<BlockState> palettedcontainer;
+                    if (palettedcontainerro$rawpackeddata != null) {
+                        palettedcontainer = PalettedContainer.unpack(
+                                Block.BLOCK_STATE_REGISTRY,
+                                PalettedContainer.Strategy.SECTION_STATES,
+                                palettedcontainerro$rawpackeddata.paletteEntries(),
+                                palettedcontainerro$rawpackeddata.storage()
+                            )
+                            .getOrThrow(SerializableChunkData.ChunkReadException::new);
+                    } else {
+                        palettedcontainer = new PalettedContainer<>(Block.BLOCK_STATE_REGISTRY, Blocks.AIR.defaultBlockState(), PalettedContainer.Strategy.SECTION_STATES);
+                    }
+
+                    PalettedContainerRO<Holder<Biome>> palettedcontainerro;
+                    if (palettedcontainerro$rawpackeddata1 != null) {
+                        palettedcontainerro = PalettedContainer.unpack(
+                                registry.asHolderIdMap(),
+                                PalettedContainer.Strategy.SECTION_BIOMES,
+                                palettedcontainerro$rawpackeddata1.paletteEntries(),
+                                palettedcontainerro$rawpackeddata1.storage()
+                            )
+                            .getOrThrow(SerializableChunkData.ChunkReadException::new);
+                    } else {
+                        palettedcontainerro = new PalettedContainer<>(
+                            registry.asHolderIdMap(), registry.getOrThrow(Biomes.PLAINS), PalettedContainer.Strategy.SECTION_BIOMES
+                        );
+                    }
+
+                    if (!list.isEmpty()) {
+                        SerializableChunkData.logErrors(pos, i, String.join("; ", list));
+                    }
+
+                    levelchunksection = new LevelChunkSection(palettedcontainer, palettedcontainerro);
+                }
+
+                return new SerializableChunkData.SectionData(i, levelchunksection, datalayer, datalayer1);
+            }
+
+            String s = input.readUTF();
+            if (s.equals("Y")) {
+                if (TagTypes.getType(b0).load(input, accounter) instanceof NumericTag numerictag) {
+                    i = numerictag.getAsByte();
+                }
+            } else if (b0 == 10 && s.equals("block_states")) {
+                palettedcontainerro$rawpackeddata = readPackedData(input, accounter, 10, () -> readBlockState(input, accounter, list));
+            } else if (b0 == 10 && s.equals("biomes")) {
+                palettedcontainerro$rawpackeddata1 = readPackedData(input, accounter, 8, () -> readBiome(input, registry, list));
+            } else if (b0 == 7 && s.equals("BlockLight")) {
+                datalayer = new DataLayer(readByteArray(input));
+            } else if (b0 == 7 && s.equals("SkyLight")) {
+                datalayer1 = new DataLayer(readByteArray(input));
+            } else {
+                TagTypes.getType(b0).skip(input, accounter);
+            }
+        }
+    }
+
+    private static <T> PalettedContainerRO.RawPackedData<T> readPackedData(
+        DataInput input, NbtAccounter accounter, int paletteType, StreamingChunkCodec.EntryReader<T> entryReader
+    ) throws IOException {
+        List<T> list = null;
+        long[] along = null;
+
+        while (true) {
+            byte b0 = input.readByte();
+            if (b0 == 0) {
+                if (list == null) {
+                    throw new SerializableChunkData.ChunkReadException("No key palette in paletted container");
+                }
+
+                return new PalettedContainerRO.RawPackedData<>(list, along);
+            }
+
+            String s = input.readUTF();
+            if (b0 == 9 && s.equals("palette")) {
+                byte b1 = input.readByte();
+                int i = input.readInt();
+                if (i > 0 && b1 != paletteType) {
+                    throw new SerializableChunkData.ChunkReadException("Unexpected palette entry type " + b1);
+                }
+
+                list = new ArrayList<>(i);
+
+                for (int j = 0; j < i; j++) {
+                    list.add(entryReader.read());
+                }
+            } else if (b0 == 12 && s.equals("data")) {
+                int k = input.readInt();
+                along = new long[k];
+
+                for (int l = 0; l < k; l++) {
+                    along[l] = input.readLong();
+                }
+            } else {
+                TagTypes.getType(b0).skip(input, accounter);
+            }
+        }
+    }
+
+    private static BlockState readBlockState(DataInput input, NbtAccounter accounter, List<String> errors) throws IOException {
+        String s = null;
+        List<String> list = null;
+
+        while (true) {
+            byte b0 = input.readByte();
+            if (b0 == 0) {
+                break;
+            }
+
+            String s1 = input.readUTF();
+            if (b0 == 8 && s1.equals("Name")) {
+                s = input.readUTF();
+            } else if (b0 == 10 && s1.equals("Properties")) {
+                list = new ArrayList<>();
+
+                while (true) {
+                    byte b1 = input.readByte();
+                    if (b1 == 0) {
+                        break;
+                    }
+
+                    String s2 = input.readUTF();
+                    if (b1 == 8) {
+                        list.add(s2);
+                        list.add(input.readUTF());
+                    } else {
+                        TagTypes.getType(b1).skip(input, accounter);
+                        errors.add("Property " + s2 + " is not a string");
+                    }
+                }
+            } else {
+                TagTypes.getType(b0).skip(input, accounter);
+            }
+        }
+
+        if (s == null) {
+            errors.add("No key Name in block state");
+            return Blocks.AIR.defaultBlockState();
+        } else {
+            ResourceLocation resourcelocation = ResourceLocation.tryParse(s);
+            Optional<Block> optional = resourcelocation != null ? BuiltInRegistries.BLOCK.getOptional(resourcelocation) : Optional.empty();
+            if (optional.isEmpty()) {
+                errors.add("Unknown block " + s);
+                return Blocks.AIR.defaultBlockState();
+            } else {
+                Block block = optional.get();
+                BlockState blockstate = block.defaultBlockState();
+                if (list != null) {
+                    for (int i = 0; i < list.size(); i += 2) {
+                        Property<?> property = block.getStateDefinition().getProperty(list.get(i));
+                        if (property == null) {
+                            errors.add("Unknown property " + list.get(i) + " for " + s);
+                        } else {
+                            blockstate = setValue(blockstate, property, list.get(i + 1), errors);
+                        }
+                    }
+                }
+
+                return blockstate;
+            }
+        }
+    }
+
+    private static <T extends Comparable<T>> BlockState setValue(BlockState state, Property<T> property, String value, List<String> errors) {
+        Optional<T> optional = property.getValue(value);
+        if (optional.isPresent()) {
+            return state.setValue(property, optional.get());
+        } else {
+            errors.add("Unable to read property " + property.getName() + " with value " + value + " for " + state);
+            return state;
+        }
+    }
+
+    private static Holder<Biome> readBiome(DataInput input, Registry<Biome> registry, List<String> errors) throws IOException {
+        String s = input.readUTF();
+        ResourceLocation resourcelocation = ResourceLocation.tryParse(s);
+        Optional<Holder.Reference<Biome>> optional = resourcelocation != null ? registry.get(resourcelocation) : Optional.empty();
+        if (optional.isEmpty()) {
+            errors.add("Unknown biome " + s);
+            return registry.getOrThrow(Biomes.PLAINS);
+        } else {
+            return optional.get();
+        }
+    }
+
+    private static byte[] readByteArray(DataInput input) throws IOException {
+        byte[] abyte = new byte[input.readInt()];
+        input.readFully(abyte);
+        return abyte;
+    }
+
+    @FunctionalInterface
+    interface EntryReader<T> {
+        T read() throws IOException;
+    }
+}
@@ -1,17 +1,24 @@
 package net.minecraft.world.level.entity;
 
 import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.stream.Stream;
 import net.minecraft.util.AbortableIterationConsumer;
 import net.minecraft.util.ClassInstanceMultiMap;
 import net.minecraft.util.VisibleForDebug;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.phys.AABB;
 import org.slf4j.Logger;
 
 public class EntitySection<T extends EntityAccess> {
     private static final Logger LOGGER = LogUtils.getLogger();
     private final ClassInstanceMultiMap<T> storage;
+    private final Reference2ObjectMap<EntityType<?>, List<T>> byType = new Reference2ObjectOpenHashMap<>();
     private Visibility chunkStatus;
 
     public EntitySection(Class<T> p_156831_, Visibility p_156832_) {
@@ -21,10 +28,21 @@ public class EntitySection<T extends EntityAccess> {
 
     public void add(T p_188347_) {
         this.storage.add(p_188347_);
+        if (p_188347_ instanceof Entity entity) {
+            this.byType.computeIfAbsent(entity.getType(), type -> new ArrayList<>()).add(p_188347_);
+        }
     }
 
     public boolean remove(T p_188356_) {
-        return this.storage.remove(p_188356_);
+        boolean flag = this.storage.remove(p_188356_);
+        if (flag && p_188356_ instanceof Entity entity) {
+            List<T> list = this.byType.get(entity.getType());
+            if (list != null) {
+                list.remove(p_188356_);
+            }
+        }
+
+        return flag;
     }
 
     public AbortableIterationConsumer.Continuation getEntities(AABB p_262016_, AbortableIterationConsumer<T> p_261863_) {
@@ -40,7 +58,9 @@ public class EntitySection<T extends EntityAccess> {
     public <U extends T> AbortableIterationConsumer.Continuation getEntities(
         EntityTypeTest<T, U> p_188349_, AABB p_188350_, AbortableIterationConsumer<? super U> p_261535_
     ) {
-        Collection<? extends T> collection = this.storage.find(p_188349_.getBaseClass());
+        Collection<? extends T> collection = p_188349_ instanceof EntityType<?> entitytype
+            ? this.byType.getOrDefault(entitytype, List.of())
+            : this.storage.find(p_188349_.getBaseClass());
         if (collection.isEmpty()) {
             return AbortableIterationConsumer.Continuation.CONTINUE;
         } else {
@@ -41,6 +41,10 @@ public class EntitySectionStorage<T extends EntityAccess> {
         int l = SectionPos.posToSectionCoord(p_188363_.maxX + 2.0);
         int i1 = SectionPos.posToSectionCoord(p_188363_.maxY + 0.0);
         int j1 = SectionPos.posToSectionCoord(p_188363_.maxZ + 2.0);
+        if ((long)(l - i + 1) * (long)(i1 - j + 1) * (long)(j1 - k + 1) <= 64L) {
+            this.forEachSectionByLookup(i, j, k, l, i1, j1, p_261588_);
+            return;
+        }
 
         for (int k1 = i; k1 <= l; k1++) {
             long l1 = SectionPos.asLong(k1, 0, 0);
@@ -64,6 +68,32 @@ public class EntitySectionStorage<T extends EntityAccess> {
         }
     }
 
+    private void forEachSectionByLookup(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, AbortableIterationConsumer<EntitySection<T>> consumer) {
+        for (int i = minX; i <= maxX; i++) {
+            for (int j = 0; j < 2; j++) {
+                int k = j == 0 ? Math.max(minZ, 0) : minZ;
+                int l = j == 0 ? maxZ : Math.min(maxZ, -1);
+
+                for (int i1 = k; i1 <= l; i1++) {
+                    for (int j1 = 0; j1 < 2; j1++) {
+                        int k1 = j1 == 0 ? Math.max(minY, 0) : minY;
+                        int l1 = j1 == 0 ? maxY : Math.min(maxY, -1);
+
+                        for (int i2 = k1; i2 <= l1; i2++) {
+                            EntitySection<T> entitysection = this.sections.get(SectionPos.asLong(i, i2, i1));
+                            if (entitysection != null
+                                && !entitysection.isEmpty()
+                                && entitysection.getStatus().isAccessible()
+                                && consumer.accept(entitysection).shouldAbort()) {
+                                return;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     public LongStream getExistingSectionPositionsInChunk(long p_156862_) {
         int i = ChunkPos.getX(p_156862_);
         int j = ChunkPos.getZ(p_156862_);
@@ -380,7 +380,7 @@ public class PersistentEntitySectionManager<T extends EntityAccess> implements A
         public void onMove() {
             BlockPos blockpos = this.entity.blockPosition();
             long i = SectionPos.asLong(blockpos);
-            if (i != this.currentSectionKey) {
+            if (i != this.currentSectionKey && !RegionTickContext.defer(this::onMove)) {
                 Visibility visibility = this.currentSection.getStatus();
                 if (!this.currentSection.remove(this.entity)) {
                     PersistentEntitySectionManager.LOGGER
@@ -428,6 +428,10 @@ public class PersistentEntitySectionManager<T extends EntityAccess> implements A
 
         @Override
         public void onRemove(Entity.RemovalReason p_157619_) {
+            if (RegionTickContext.defer(() -> this.onRemove(p_157619_))) {
+                return;
+            }
+
             if (!this.currentSection.remove(this.entity)) {
                 PersistentEntitySectionManager.LOGGER
                     .warn("Entity {} wasn't found in section {} (destroying due to {})", this.entity, SectionPos.of(this.currentSectionKey), p_157619_);
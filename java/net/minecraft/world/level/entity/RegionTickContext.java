@@ -0,0 +1,54 @@
+package net.minecraft.world.level.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RegionTickContext {
+    private static final ThreadLocal<RegionTickContext> CURRENT = new ThreadLocal<>();
+    private static volatile boolean active;
+    private final List<Runnable> deferred = new ArrayList<>();
+
+    public static void setActive(boolean active) {
+        RegionTickContext.active = active;
+    }
+
+    public static boolean isActive() {
+        return active;
+    }
+
+    public static boolean inRegion() {
+        return active && CURRENT.get() != null;
+    }
+
+    public static boolean defer(Runnable action) {
+        if (!active) {
+            return false;
+        } else {
+            RegionTickContext regiontickcontext = CURRENT.get();
+            if (regiontickcontext == null) {
+                return false;
+            } else {
+                regiontickcontext.deferred.add(action);
+                return true;
+            }
+        }
+    }
+
+    public void run(Runnable task) {
+        CURRENT.set(this);
+
+        try {
+            task.run();
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    public void flush() {
+        for (int i = 0; i < this.deferred.size(); i++) {
+            this.deferred.get(i).run();
+        }
+
+        this.deferred.clear();
+    }
+}
@@ -1,6 +1,7 @@
 package net.minecraft.world.level.levelgen;
 
 import com.mojang.serialization.Codec;
+import java.util.Arrays;
 import javax.annotation.Nullable;
 import net.minecraft.core.Holder;
 import net.minecraft.core.registries.Registries;
@@ -89,6 +90,14 @@ public interface DensityFunction {
             return this.noise == null ? 0.0 : this.noise.getValue(p_224007_, p_224008_, p_224009_);
         }
 
+        public void fillValues(double[] xs, double[] ys, double[] zs, double[] output, int count) {
+            if (this.noise == null) {
+                Arrays.fill(output, 0, count, 0.0);
+            } else {
+                this.noise.fillValues(xs, ys, zs, output, count);
+            }
+        }
+
         public double maxValue() {
             return this.noise == null ? 2.0 : this.noise.maxValue();
         }
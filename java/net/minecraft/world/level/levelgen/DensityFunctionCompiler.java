@@ -0,0 +1,159 @@
+package net.minecraft.world.level.levelgen;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.util.KeyDispatchDataCodec;
+
+public class DensityFunctionCompiler implements DensityFunction.Visitor {
+    private static final DensityFunction.FunctionContext ORIGIN = new DensityFunction.SinglePointContext(0, 0, 0);
+    private static volatile boolean enabled = true;
+
+    public static void configure(boolean enable) {
+        enabled = enable;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static NoiseRouter compile(NoiseRouter router) {
+        DensityFunctionCompiler densityfunctioncompiler = new DensityFunctionCompiler();
+        return new NoiseRouter(
+            densityfunctioncompiler.compile(router.barrierNoise()),
+            densityfunctioncompiler.compile(router.fluidLevelFloodednessNoise()),
+            densityfunctioncompiler.compile(router.fluidLevelSpreadNoise()),
+            densityfunctioncompiler.compile(router.lavaNoise()),
+            densityfunctioncompiler.compile(router.temperature()),
+            densityfunctioncompiler.compile(router.vegetation()),
+            densityfunctioncompiler.compile(router.continents()),
+            densityfunctioncompiler.compile(router.erosion()),
+            densityfunctioncompiler.compile(router.depth()),
+            densityfunctioncompiler.compile(router.ridges()),
+            densityfunctioncompiler.compile(router.initialDensityWithoutJaggedness()),
+            densityfunctioncompiler.compile(router.finalDensity()),
+            densityfunctioncompiler.compile(router.veinToggle()),
+            densityfunctioncompiler.compile(router.veinRidged()),
+            densityfunctioncompiler.compile(router.veinGap())
+        );
+    }
+
+    public DensityFunction compile(DensityFunction function) {
+        return this.fuse(function.mapAll(this), true);
+    }
+
+    @Override
+    public DensityFunction apply(DensityFunction function) {
+        if (function instanceof DensityFunctions.HolderHolder densityfunctions$holderholder) {
+            if (densityfunctions$holderholder.function().isBound() && !isConstant(densityfunctions$holderholder.function().value())) {
+                return this.fuse(densityfunctions$holderholder.function().value(), false);
+            } else {
+                return function;
+            }
+        } else if (function instanceof DensityFunctions.Ap2 densityfunctions$ap2) {
+            return new DensityFunctions.Ap2(
+                densityfunctions$ap2.type(),
+                this.fuse(densityfunctions$ap2.argument1(), false),
+                this.fuse(densityfunctions$ap2.argument2(), false),
+                densityfunctions$ap2.minValue(),
+                densityfunctions$ap2.maxValue()
+            );
+        } else if (function instanceof DensityFunctions.RangeChoice densityfunctions$rangechoice) {
+            DensityFunction densityfunction = this.fuse(densityfunctions$rangechoice.input(), true);
+            DensityFunction densityfunction1 = this.fuse(densityfunctions$rangechoice.whenInRange(), false);
+            DensityFunction densityfunction2 = this.fuse(densityfunctions$rangechoice.whenOutOfRange(), false);
+            DensityFunction densityfunction3 = densityfunction instanceof DensityFunctions.Constant densityfunctions$constant
+                ? (
+                    densityfunctions$constant.value() >= densityfunctions$rangechoice.minInclusive()
+                            && densityfunctions$constant.value() < densityfunctions$rangechoice.maxExclusive()
+                        ? densityfunction1
+                        : densityfunction2
+                )
+                : null;
+            if (densityfunction3 != null && !isConstant(densityfunction3)) {
+                return densityfunction3;
+            } else {
+                return new DensityFunctions.RangeChoice(
+                    densityfunction, densityfunctions$rangechoice.minInclusive(), densityfunctions$rangechoice.maxExclusive(), densityfunction1, densityfunction2
+                );
+            }
+        } else if (function instanceof DensityFunctions.Marker densityfunctions$marker) {
+            return new DensityFunctions.Marker(densityfunctions$marker.type(), this.fuse(densityfunctions$marker.wrapped(), false));
+        } else if (function instanceof DensityFunctions.ShiftedNoise densityfunctions$shiftednoise) {
+            return new DensityFunctions.ShiftedNoise(
+                this.fuse(densityfunctions$shiftednoise.shiftX(), true),
+                this.fuse(densityfunctions$shiftednoise.shiftY(), true),
+                this.fuse(densityfunctions$shiftednoise.shiftZ(), true),
+                densityfunctions$shiftednoise.xzScale(),
+                densityfunctions$shiftednoise.yScale(),
+                densityfunctions$shiftednoise.noise()
+            );
+        } else if (function instanceof DensityFunctions.WeirdScaledSampler densityfunctions$weirdscaledsampler) {
+            return new DensityFunctions.WeirdScaledSampler(
+                this.fuse(densityfunctions$weirdscaledsampler.input(), true),
+                densityfunctions$weirdscaledsampler.noise(),
+                densityfunctions$weirdscaledsampler.rarityValueMapper()
+            );
+        } else {
+            return function instanceof DensityFunctions.BlendDensity densityfunctions$blenddensity
+                ? new DensityFunctions.BlendDensity(this.fuse(densityfunctions$blenddensity.input(), true))
+                : function;
+        }
+    }
+
+    private DensityFunction fuse(DensityFunction function, boolean foldConstants) {
+        if (!isFusable(function)) {
+            return function;
+        } else {
+            List<DensityFunctions.PureTransformer> list = new ArrayList<>();
+            DensityFunction densityfunction = function;
+
+            while (isFusable(densityfunction)) {
+                DensityFunctions.PureTransformer densityfunctions$puretransformer = (DensityFunctions.PureTransformer)densityfunction;
+                list.add(0, densityfunctions$puretransformer);
+                densityfunction = densityfunctions$puretransformer.input();
+            }
+
+            if (foldConstants && isConstant(densityfunction)) {
+                return DensityFunctions.constant(function.compute(ORIGIN));
+            } else {
+                return (DensityFunction)(list.size() == 1
+                    ? function
+                    : new DensityFunctionCompiler.TransformChain(
+                        densityfunction, List.copyOf(list), function.minValue(), function.maxValue()
+                    ));
+            }
+        }
+    }
+
+    private static boolean isFusable(DensityFunction function) {
+        return function instanceof DensityFunctions.Clamp || function instanceof DensityFunctions.Mapped || function instanceof DensityFunctions.MulOrAdd;
+    }
+
+    private static boolean isConstant(DensityFunction function) {
+        return function instanceof DensityFunctions.Constant;
+    }
+
+    record TransformChain(DensityFunction input, List<DensityFunctions.PureTransformer> stages, double minValue, double maxValue)
+        implements DensityFunctions.PureTransformer {
+        @Override
+        public double transform(double value) {
+            double d0 = value;
+
+            for (int i = 0; i < this.stages.size(); i++) {
+                d0 = this.stages.get(i).transform(d0);
+            }
+
+            return d0;
+        }
+
+        @Override
+        public DensityFunction mapAll(DensityFunction.Visitor visitor) {
+            return visitor.apply(new DensityFunctionCompiler.TransformChain(this.input.mapAll(visitor), this.stages, this.minValue, this.maxValue));
+        }
+
+        @Override
+        public KeyDispatchDataCodec<? extends DensityFunction> codec() {
+            throw new UnsupportedOperationException("Calling .codec() on a compiled TransformChain");
+        }
+    }
+}
@@ -24,6 +24,7 @@ import net.minecraft.util.ToFloatFunction;
 import net.minecraft.util.VisibleForDebug;
 import net.minecraft.world.level.dimension.DimensionType;
 import net.minecraft.world.level.levelgen.synth.BlendedNoise;
+import net.minecraft.world.level.levelgen.synth.NoiseScratch;
 import net.minecraft.world.level.levelgen.synth.NormalNoise;
 import net.minecraft.world.level.levelgen.synth.SimplexNoise;
 import org.slf4j.Logger;
@@ -880,7 +881,24 @@ public final class DensityFunctions {
 
         @Override
         public void fillArray(double[] p_224079_, DensityFunction.ContextProvider p_224080_) {
-            p_224080_.fillAllDirectly(p_224079_, this);
+            int i = p_224079_.length;
+            NoiseScratch noisescratch = NoiseScratch.get();
+            double[] adouble = noisescratch.take(i);
+            double[] adouble1 = noisescratch.take(i);
+            double[] adouble2 = noisescratch.take(i);
+
+            try {
+                for (int j = 0; j < i; j++) {
+                    DensityFunction.FunctionContext densityfunction$functioncontext = p_224080_.forIndex(j);
+                    adouble[j] = (double)densityfunction$functioncontext.blockX() * this.xzScale;
+                    adouble1[j] = (double)densityfunction$functioncontext.blockY() * this.yScale;
+                    adouble2[j] = (double)densityfunction$functioncontext.blockZ() * this.xzScale;
+                }
+
+                this.noise.fillValues(adouble, adouble1, adouble2, p_224079_, i);
+            } finally {
+                noisescratch.release(3);
+            }
         }
 
         @Override
@@ -1119,7 +1137,28 @@ public final class DensityFunctions {
 
         @Override
         public void fillArray(double[] p_208956_, DensityFunction.ContextProvider p_208957_) {
-            p_208957_.fillAllDirectly(p_208956_, this);
+            int i = p_208956_.length;
+            NoiseScratch noisescratch = NoiseScratch.get();
+            double[] adouble = noisescratch.take(i);
+            double[] adouble1 = noisescratch.take(i);
+            double[] adouble2 = noisescratch.take(i);
+
+            try {
+                this.shiftX.fillArray(adouble, p_208957_);
+                this.shiftY.fillArray(adouble1, p_208957_);
+                this.shiftZ.fillArray(adouble2, p_208957_);
+
+                for (int j = 0; j < i; j++) {
+                    DensityFunction.FunctionContext densityfunction$functioncontext = p_208957_.forIndex(j);
+                    adouble[j] = (double)densityfunction$functioncontext.blockX() * this.xzScale + adouble[j];
+                    adouble1[j] = (double)densityfunction$functioncontext.blockY() * this.yScale + adouble1[j];
+                    adouble2[j] = (double)densityfunction$functioncontext.blockZ() * this.xzScale + adouble2[j];
+                }
+
+                this.noise.fillValues(adouble, adouble1, adouble2, p_208956_, i);
+            } finally {
+                noisescratch.release(3);
+            }
         }
 
         @Override
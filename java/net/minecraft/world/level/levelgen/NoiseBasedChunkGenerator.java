@@ -6,11 +6,19 @@ import com.google.common.collect.Sets;
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import com.mojang.serialization.codecs.RecordCodecBuilder.Instance;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.OptionalInt;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
@@ -56,6 +64,7 @@ public final class NoiseBasedChunkGenerator extends ChunkGenerator {
                 .apply(p_255585_, p_255585_.stable(NoiseBasedChunkGenerator::new))
     );
     private static final BlockState AIR = Blocks.AIR.defaultBlockState();
+    private static volatile int noiseFillTasks = defaultNoiseFillTasks();
     private final Holder<NoiseGeneratorSettings> settings;
     private final Supplier<Aquifer.FluidPicker> globalFluidPicker;
 
@@ -300,40 +309,134 @@ public final class NoiseBasedChunkGenerator extends ChunkGenerator {
         }
     }
 
+    public static void configureNoiseFill(int tasks) {
+        noiseFillTasks = tasks > 0 ? tasks : defaultNoiseFillTasks();
+    }
+
+    private static int defaultNoiseFillTasks() {
+        return Mth.clamp(Runtime.getRuntime().availableProcessors() / 4, 1, 4);
+    }
+
     @Override
     public CompletableFuture<ChunkAccess> fillFromNoise(Blender p_224313_, RandomState p_224314_, StructureManager p_224315_, ChunkAccess p_224316_) {
         NoiseSettings noisesettings = this.settings.value().noiseSettings().clampToHeightAccessor(p_224316_.getHeightAccessorForGeneration());
         int i = noisesettings.minY();
         int j = Mth.floorDiv(i, noisesettings.getCellHeight());
         int k = Mth.floorDiv(noisesettings.height(), noisesettings.getCellHeight());
-        return k <= 0 ? CompletableFuture.completedFuture(p_224316_) : CompletableFuture.supplyAsync(() -> {
-            int l = p_224316_.getSectionIndex(k * noisesettings.getCellHeight() - 1 + i);
-            int i1 = p_224316_.getSectionIndex(i);
-            Set<LevelChunkSection> set = Sets.newHashSet();
-
-            for (int j1 = l; j1 >= i1; j1--) {
-                LevelChunkSection levelchunksection = p_224316_.getSection(j1);
-                levelchunksection.acquire();
-                set.add(levelchunksection);
+        if (k <= 0) {
+            return CompletableFuture.completedFuture(p_224316_);
+        } else {
+            IntList intlist = splitCellRange(j, k, noisesettings.getCellHeight(), noiseFillTasks);
+            return intlist.size() > 2
+                ? this.fillFromNoiseInBands(p_224313_, p_224314_, p_224315_, p_224316_, noisesettings, j, intlist)
+                : CompletableFuture.supplyAsync(() -> {
+                    Set<LevelChunkSection> set = acquireSections(p_224316_, i, k * noisesettings.getCellHeight());
+
+                    ChunkAccess chunkaccess;
+                    try {
+                        chunkaccess = this.doFill(p_224313_, p_224315_, p_224314_, p_224316_, j, k);
+                    } finally {
+                        releaseSections(set);
+                    }
+
+                    return chunkaccess;
+                }, Util.backgroundExecutor().forName("wgen_fill_noise"));
+        }
+    }
+
+    private CompletableFuture<ChunkAccess> fillFromNoiseInBands(
+        Blender blender, RandomState randomState, StructureManager structureManager, ChunkAccess chunk, NoiseSettings noiseSettings, int firstCellY, IntList bands
+    ) {
+        Executor executor = Util.backgroundExecutor().forName("wgen_fill_noise");
+        return CompletableFuture.<Set<LevelChunkSection>>supplyAsync(() -> {
+            chunk.getOrCreateNoiseChunk(p_224255_ -> this.createNoiseChunk(p_224255_, structureManager, blender, randomState));
+            return acquireSections(chunk, noiseSettings.minY(), bands.getInt(bands.size() - 1) * noiseSettings.getCellHeight());
+        }, executor).thenCompose(sections -> {
+            List<CompletableFuture<LongList>> list = new ArrayList<>(bands.size() - 1);
+
+            for (int i = 0; i < bands.size() - 1; i++) {
+                int j = firstCellY + bands.getInt(i);
+                int k = bands.getInt(i + 1) - bands.getInt(i);
+                Beardifier beardifier = Beardifier.forStructuresInChunk(structureManager, chunk.getPos());
+                list.add(CompletableFuture.supplyAsync(() -> {
+                    NoiseChunk noisechunk = NoiseChunk.forChunkCells(chunk, randomState, beardifier, this.settings.value(), this.globalFluidPicker.get(), blender, j, k);
+                    LongList longlist = new LongArrayList();
+                    this.fillCells(noisechunk, chunk, j, k, null, null, blockPos -> longlist.add(blockPos.asLong()));
+                    return longlist;
+                }, executor));
             }
 
-            ChunkAccess chunkaccess;
-            try {
-                chunkaccess = this.doFill(p_224313_, p_224315_, p_224314_, p_224316_, j, k);
-            } finally {
-                for (LevelChunkSection levelchunksection1 : set) {
-                    levelchunksection1.release();
+            return Util.sequence(list).whenComplete((fluidUpdates, throwable) -> releaseSections(sections)).thenApply(fluidUpdates -> {
+                BlockPos.MutableBlockPos blockpos$mutableblockpos = new BlockPos.MutableBlockPos();
+
+                for (LongList longlist : fluidUpdates) {
+                    for (int i = 0; i < longlist.size(); i++) {
+                        chunk.markPosForPostprocessing(blockpos$mutableblockpos.set(longlist.getLong(i)));
+                    }
+                }
+
+                Heightmap.primeHeightmaps(chunk, EnumSet.of(Heightmap.Types.OCEAN_FLOOR_WG, Heightmap.Types.WORLD_SURFACE_WG));
+                return chunk;
+            });
+        });
+    }
+
+    static IntList splitCellRange(int firstCellY, int cellCountY, int cellHeight, int tasks) {
+        IntList intlist = new IntArrayList();
+        intlist.add(0);
+        if (tasks > 1 && 16 % cellHeight == 0) {
+            int i = 16 / cellHeight;
+            int j = Math.floorMod(-firstCellY, i);
+
+            for (int k = 1; k < tasks; k++) {
+                int l = j + Math.floorDiv(cellCountY * k / tasks - j + i / 2, i) * i;
+                if (l > intlist.getInt(intlist.size() - 1) && l < cellCountY) {
+                    intlist.add(l);
                 }
             }
+        }
+
+        intlist.add(cellCountY);
+        return intlist;
+    }
+
+    private static Set<LevelChunkSection> acquireSections(ChunkAccess chunk, int minY, int height) {
+        int i = chunk.getSectionIndex(minY + height - 1);
+        int j = chunk.getSectionIndex(minY);
+        Set<LevelChunkSection> set = Sets.newHashSet();
+
+        for (int k = i; k >= j; k--) {
+            LevelChunkSection levelchunksection = chunk.getSection(k);
+            levelchunksection.acquire();
+            set.add(levelchunksection);
+        }
+
+        return set;
+    }
 
-            return chunkaccess;
-        }, Util.backgroundExecutor().forName("wgen_fill_noise"));
+    private static void releaseSections(Set<LevelChunkSection> sections) {
+        for (LevelChunkSection levelchunksection : sections) {
+            levelchunksection.release();
+        }
     }
 
     private ChunkAccess doFill(Blender p_224285_, StructureManager p_224286_, RandomState p_224287_, ChunkAccess p_224288_, int p_224289_, int p_224290_) {
         NoiseChunk noisechunk = p_224288_.getOrCreateNoiseChunk(p_224255_ -> this.createNoiseChunk(p_224255_, p_224286_, p_224285_, p_224287_));
         Heightmap heightmap = p_224288_.getOrCreateHeightmapUnprimed(Heightmap.Types.OCEAN_FLOOR_WG);
         Heightmap heightmap1 = p_224288_.getOrCreateHeightmapUnprimed(Heightmap.Types.WORLD_SURFACE_WG);
+        this.fillCells(noisechunk, p_224288_, p_224289_, p_224290_, heightmap, heightmap1, p_224288_::markPosForPostprocessing);
+        return p_224288_;
+    }
+
+    private void fillCells(
+        NoiseChunk noisechunk,
+        ChunkAccess p_224288_,
+        int p_224289_,
+        int p_224290_,
+        @Nullable Heightmap heightmap,
+        @Nullable Heightmap heightmap1,
+        Consumer<BlockPos> fluidUpdates
+    ) {
         ChunkPos chunkpos = p_224288_.getPos();
         int i = chunkpos.getMinBlockX();
         int j = chunkpos.getMinBlockZ();
@@ -386,11 +489,14 @@ public final class NoiseBasedChunkGenerator extends ChunkGenerator {
                                 blockstate = this.debugPreliminarySurfaceLevel(noisechunk, l3, l2, k4, blockstate);
                                 if (blockstate != AIR && !SharedConstants.debugVoidTerrain(p_224288_.getPos())) {
                                     levelchunksection.setBlockState(i4, i3, l4, blockstate, false);
-                                    heightmap.update(i4, l2, l4, blockstate);
-                                    heightmap1.update(i4, l2, l4, blockstate);
+                                    if (heightmap != null) {
+                                        heightmap.update(i4, l2, l4, blockstate);
+                                        heightmap1.update(i4, l2, l4, blockstate);
+                                    }
+
                                     if (aquifer.shouldScheduleFluidUpdate() && !blockstate.getFluidState().isEmpty()) {
                                         blockpos$mutableblockpos.set(l3, l2, k4);
-                                        p_224288_.markPosForPostprocessing(blockpos$mutableblockpos);
+                                        fluidUpdates.accept(blockpos$mutableblockpos);
                                     }
                                 }
                             }
@@ -403,7 +509,6 @@ public final class NoiseBasedChunkGenerator extends ChunkGenerator {
         }
 
         noisechunk.stopInterpolation();
-        return p_224288_;
     }
 
     private BlockState debugPreliminarySurfaceLevel(NoiseChunk p_198232_, int p_198233_, int p_198234_, int p_198235_, BlockState p_198236_) {
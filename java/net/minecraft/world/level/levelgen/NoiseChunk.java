@@ -92,6 +92,34 @@ public class NoiseChunk implements DensityFunction.ContextProvider, DensityFunct
         return new NoiseChunk(i, p_224354_, chunkpos.getMinBlockX(), chunkpos.getMinBlockZ(), noisesettings, p_224355_, p_224356_, p_224357_, p_224358_);
     }
 
+    public static NoiseChunk forChunkCells(
+        ChunkAccess chunk,
+        RandomState randomState,
+        DensityFunctions.BeardifierOrMarker beardifier,
+        NoiseGeneratorSettings settings,
+        Aquifer.FluidPicker fluidPicker,
+        Blender blender,
+        int firstCellY,
+        int cellCountY
+    ) {
+        NoiseSettings noisesettings = settings.noiseSettings().clampToHeightAccessor(chunk);
+        ChunkPos chunkpos = chunk.getPos();
+        int i = 16 / noisesettings.getCellWidth();
+        return new NoiseChunk(
+            i,
+            randomState,
+            chunkpos.getMinBlockX(),
+            chunkpos.getMinBlockZ(),
+            noisesettings,
+            beardifier,
+            settings,
+            fluidPicker,
+            blender,
+            firstCellY,
+            cellCountY
+        );
+    }
+
     public NoiseChunk(
         int p_224343_,
         RandomState p_224344_,
@@ -102,13 +130,41 @@ public class NoiseChunk implements DensityFunction.ContextProvider, DensityFunct
         NoiseGeneratorSettings p_224349_,
         Aquifer.FluidPicker p_224350_,
         Blender p_224351_
+    ) {
+        this(
+            p_224343_,
+            p_224344_,
+            p_224345_,
+            p_224346_,
+            p_224347_,
+            p_224348_,
+            p_224349_,
+            p_224350_,
+            p_224351_,
+            Mth.floorDiv(p_224347_.minY(), p_224347_.getCellHeight()),
+            Mth.floorDiv(p_224347_.height(), p_224347_.getCellHeight())
+        );
+    }
+
+    private NoiseChunk(
+        int p_224343_,
+        RandomState p_224344_,
+        int p_224345_,
+        int p_224346_,
+        NoiseSettings p_224347_,
+        DensityFunctions.BeardifierOrMarker p_224348_,
+        NoiseGeneratorSettings p_224349_,
+        Aquifer.FluidPicker p_224350_,
+        Blender p_224351_,
+        int firstCellY,
+        int cellCountY
     ) {
         this.noiseSettings = p_224347_;
         this.cellWidth = p_224347_.getCellWidth();
         this.cellHeight = p_224347_.getCellHeight();
         this.cellCountXZ = p_224343_;
-        this.cellCountY = Mth.floorDiv(p_224347_.height(), this.cellHeight);
-        this.cellNoiseMinY = Mth.floorDiv(p_224347_.minY(), this.cellHeight);
+        this.cellCountY = cellCountY;
+        this.cellNoiseMinY = firstCellY;
         this.firstCellX = Math.floorDiv(p_224345_, this.cellWidth);
         this.firstCellZ = Math.floorDiv(p_224346_, this.cellWidth);
         this.interpolators = Lists.newArrayList();
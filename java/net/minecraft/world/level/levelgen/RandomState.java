@@ -92,7 +92,8 @@ public final class RandomState {
             }
         }
 
-        this.router = p_255668_.noiseRouter().mapAll(new NoiseWiringHelper());
+        NoiseRouter noiserouter = p_255668_.noiseRouter().mapAll(new NoiseWiringHelper());
+        this.router = DensityFunctionCompiler.isEnabled() ? DensityFunctionCompiler.compile(noiserouter) : noiserouter;
         DensityFunction.Visitor densityfunction$visitor = new DensityFunction.Visitor() {
             private final Map<DensityFunction, DensityFunction> wrapped = new HashMap<>();
 
@@ -4,8 +4,6 @@ import com.mojang.datafixers.DataFixer;
 import com.mojang.logging.LogUtils;
 import it.unimi.dsi.fastutil.longs.Long2BooleanMap;
 import it.unimi.dsi.fastutil.longs.Long2BooleanOpenHashMap;
-import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
-import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntMaps;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
@@ -47,7 +45,7 @@ public class StructureCheck {
     private final BiomeSource biomeSource;
     private final long seed;
     private final DataFixer fixerUpper;
-    private final Long2ObjectMap<Object2IntMap<Structure>> loadedChunks = new Long2ObjectOpenHashMap<>();
+    private final StructureStartIndex index;
     private final Map<Structure, Long2BooleanMap> featureChecks = new HashMap<>();
 
     public StructureCheck(
@@ -60,7 +58,8 @@ public class StructureCheck {
         LevelHeightAccessor p_226718_,
         BiomeSource p_226719_,
         long p_226720_,
-        DataFixer p_226721_
+        DataFixer p_226721_,
+        StructureStartIndex index
     ) {
         this.storageAccess = p_226712_;
         this.registryAccess = p_226713_;
@@ -72,15 +71,16 @@ public class StructureCheck {
         this.biomeSource = p_226719_;
         this.seed = p_226720_;
         this.fixerUpper = p_226721_;
+        this.index = index;
     }
 
     public StructureCheckResult checkStart(ChunkPos p_226730_, Structure p_226731_, StructurePlacement p_327807_, boolean p_226732_) {
         long i = p_226730_.toLong();
-        Object2IntMap<Structure> object2intmap = this.loadedChunks.get(i);
+        Object2IntMap<Structure> object2intmap = this.index.getStarts(i);
         if (object2intmap != null) {
             return this.checkStructureInfo(object2intmap, p_226731_, p_226732_);
         } else {
-            StructureCheckResult structurecheckresult = this.tryLoadFromStorage(p_226730_, p_226731_, p_226732_, i);
+            StructureCheckResult structurecheckresult = this.index.isKnownUngenerated(i) ? null : this.tryLoadFromStorage(p_226730_, p_226731_, p_226732_, i);
             if (structurecheckresult != null) {
                 return structurecheckresult;
             } else if (!p_327807_.applyAdditionalChunkRestrictions(p_226730_.x, p_226730_.z, this.seed)) {
@@ -127,6 +127,7 @@ public class StructureCheck {
         }
 
         if (!(collectfields.getResult() instanceof CompoundTag compoundtag)) {
+            this.index.markUngenerated(p_226737_);
             return null;
         } else {
             int i = ChunkStorage.getVersion(compoundtag);
@@ -145,6 +146,7 @@ public class StructureCheck {
 
                 Object2IntMap<Structure> object2intmap = this.loadStructures(compoundtag1);
                 if (object2intmap == null) {
+                    this.index.markUngenerated(p_226737_);
                     return null;
                 } else {
                     this.storeFullResults(p_226737_, object2intmap);
@@ -214,18 +216,11 @@ public class StructureCheck {
     }
 
     private void storeFullResults(long p_197264_, Object2IntMap<Structure> p_197265_) {
-        this.loadedChunks.put(p_197264_, deduplicateEmptyMap(p_197265_));
+        this.index.putStarts(p_197264_, deduplicateEmptyMap(p_197265_));
         this.featureChecks.values().forEach(p_209956_ -> p_209956_.remove(p_197264_));
     }
 
     public void incrementReference(ChunkPos p_226723_, Structure p_226724_) {
-        this.loadedChunks.compute(p_226723_.toLong(), (p_226745_, p_226746_) -> {
-            if (p_226746_ == null || p_226746_.isEmpty()) {
-                p_226746_ = new Object2IntOpenHashMap<>();
-            }
-
-            p_226746_.computeInt(p_226724_, (p_226741_, p_226742_) -> p_226742_ == null ? 1 : p_226742_ + 1);
-            return p_226746_;
-        });
+        this.index.incrementReference(p_226723_, p_226724_);
     }
 }
\ No newline at end of file
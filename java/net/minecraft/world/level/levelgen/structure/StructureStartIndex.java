@@ -0,0 +1,226 @@
+package net.minecraft.world.level.levelgen.structure;
+
+import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMaps;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Map.Entry;
+import javax.annotation.Nullable;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.core.Registry;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.saveddata.SavedData;
+import org.slf4j.Logger;
+
+public class StructureStartIndex extends SavedData {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    public static final String FILE_ID = "structure_starts";
+    private static final int CELL_SIZE_BITS = 5;
+    private static final int MAX_CELLS = 256;
+    private final Registry<Structure> structures;
+    private final Path directory;
+    private final Long2ObjectLinkedOpenHashMap<StructureStartIndex.Cell> cells = new Long2ObjectLinkedOpenHashMap<>();
+
+    public StructureStartIndex(Registry<Structure> structures, Path directory) {
+        this.structures = structures;
+        this.directory = directory;
+    }
+
+    public static SavedData.Factory<StructureStartIndex> factory(Registry<Structure> structures, Path directory) {
+        return new SavedData.Factory<>(
+            () -> new StructureStartIndex(structures, directory), (tag, registries) -> new StructureStartIndex(structures, directory), null
+        );
+    }
+
+    private static long cellKey(long chunkPos) {
+        return ChunkPos.asLong(ChunkPos.getX(chunkPos) >> 5, ChunkPos.getZ(chunkPos) >> 5);
+    }
+
+    @Nullable
+    public synchronized Object2IntMap<Structure> getStarts(long chunkPos) {
+        return this.getCell(cellKey(chunkPos)).starts.get(chunkPos);
+    }
+
+    public synchronized boolean isKnownUngenerated(long chunkPos) {
+        return this.getCell(cellKey(chunkPos)).ungenerated.contains(chunkPos);
+    }
+
+    public synchronized void putStarts(long chunkPos, Object2IntMap<Structure> starts) {
+        StructureStartIndex.Cell structurestartindex$cell = this.getCell(cellKey(chunkPos));
+        structurestartindex$cell.starts.put(chunkPos, starts);
+        structurestartindex$cell.ungenerated.remove(chunkPos);
+        structurestartindex$cell.changed = true;
+        this.setDirty();
+    }
+
+    public synchronized void markUngenerated(long chunkPos) {
+        this.getCell(cellKey(chunkPos)).ungenerated.add(chunkPos);
+    }
+
+    public synchronized void incrementReference(ChunkPos chunkPos, Structure structure) {
+        StructureStartIndex.Cell structurestartindex$cell = this.getCell(cellKey(chunkPos.toLong()));
+        structurestartindex$cell.starts.compute(chunkPos.toLong(), (pos, starts) -> {
+            if (starts == null || starts.isEmpty()) {
+                starts = new Object2IntOpenHashMap<>();
+            }
+
+            starts.computeInt(structure, (key, references) -> references == null ? 1 : references + 1);
+            return starts;
+        });
+        structurestartindex$cell.changed = true;
+        this.setDirty();
+    }
+
+    private StructureStartIndex.Cell getCell(long cellKey) {
+        StructureStartIndex.Cell structurestartindex$cell = this.cells.getAndMoveToLast(cellKey);
+        if (structurestartindex$cell == null) {
+            structurestartindex$cell = this.readCell(cellKey);
+            this.cacheCell(cellKey, structurestartindex$cell);
+        }
+
+        return structurestartindex$cell;
+    }
+
+    private Path getCellFile(long cellKey) {
+        return this.directory.resolve("r." + ChunkPos.getX(cellKey) + "." + ChunkPos.getZ(cellKey) + ".dat");
+    }
+
+    private StructureStartIndex.Cell readCell(long cellKey) {
+        Path path = this.getCellFile(cellKey);
+        if (Files.exists(path)) {
+            try {
+                return this.loadCell(NbtIo.readCompressed(path, NbtAccounter.unlimitedHeap()));
+            } catch (IOException ioexception) {
+                LOGGER.warn("Failed to read structure starts from {}", path, ioexception);
+            }
+        }
+
+        return new StructureStartIndex.Cell();
+    }
+
+    private void cacheCell(long cellKey, StructureStartIndex.Cell cell) {
+        this.cells.putAndMoveToLast(cellKey, cell);
+
+        while (this.cells.size() > 256) {
+            long i = this.cells.firstLongKey();
+            this.storeCell(i, this.cells.removeFirst());
+        }
+    }
+
+    private void storeCell(long cellKey, StructureStartIndex.Cell cell) {
+        if (cell.changed) {
+            cell.changed = false;
+            Path path = this.getCellFile(cellKey);
+
+            try {
+                if (cell.starts.isEmpty()) {
+                    Files.deleteIfExists(path);
+                } else {
+                    Files.createDirectories(this.directory);
+                    NbtIo.writeCompressed(this.saveCell(cell), path);
+                }
+            } catch (IOException ioexception) {
+                LOGGER.error("Could not save structure starts to {}", path, ioexception);
+            }
+        }
+    }
+
+    private StructureStartIndex.Cell loadCell(CompoundTag tag) {
+        StructureStartIndex.Cell structurestartindex$cell = new StructureStartIndex.Cell();
+
+        for (long i : tag.getLongArray("empty")) {
+            structurestartindex$cell.starts.put(i, Object2IntMaps.emptyMap());
+        }
+
+        CompoundTag compoundtag = tag.getCompound("starts");
+
+        for (String s : compoundtag.getAllKeys()) {
+            ResourceLocation resourcelocation = ResourceLocation.tryParse(s);
+            Structure structure = resourcelocation == null ? null : this.structures.getValue(resourcelocation);
+            if (structure != null) {
+                CompoundTag compoundtag1 = compoundtag.getCompound(s);
+                long[] along = compoundtag1.getLongArray("chunks");
+                int[] aint = compoundtag1.getIntArray("references");
+                if (along.length == aint.length) {
+                    for (int j = 0; j < along.length; j++) {
+                        Object2IntMap<Structure> object2intmap = structurestartindex$cell.starts.get(along[j]);
+                        if (object2intmap == null || object2intmap.isEmpty()) {
+                            object2intmap = new Object2IntOpenHashMap<>();
+                            structurestartindex$cell.starts.put(along[j], object2intmap);
+                        }
+
+                        object2intmap.put(structure, aint[j]);
+                    }
+                }
+            }
+        }
+
+        return structurestartindex$cell;
+    }
+
+    @Override
+    public synchronized CompoundTag save(CompoundTag p_362217_, HolderLookup.Provider p_361990_) {
+        for (Long2ObjectMap.Entry<StructureStartIndex.Cell> entry : this.cells.long2ObjectEntrySet()) {
+            this.storeCell(entry.getLongKey(), entry.getValue());
+        }
+
+        return p_362217_;
+    }
+
+    private CompoundTag saveCell(StructureStartIndex.Cell cell) {
+        LongList longlist = new LongArrayList();
+        Map<ResourceLocation, LongList> map = new Object2ObjectOpenHashMap<>();
+        Map<ResourceLocation, IntArrayList> map1 = new Object2ObjectOpenHashMap<>();
+
+        for (Long2ObjectMap.Entry<Object2IntMap<Structure>> entry : cell.starts.long2ObjectEntrySet()) {
+            if (entry.getValue().isEmpty()) {
+                longlist.add(entry.getLongKey());
+            } else {
+                for (Object2IntMap.Entry<Structure> entry1 : entry.getValue().object2IntEntrySet()) {
+                    ResourceLocation resourcelocation = this.structures.getKey(entry1.getKey());
+                    if (resourcelocation != null) {
+                        map.computeIfAbsent(resourcelocation, location -> new LongArrayList()).add(entry.getLongKey());
+                        map1.computeIfAbsent(resourcelocation, location -> new IntArrayList()).add(entry1.getIntValue());
+                    }
+                }
+            }
+        }
+
+        CompoundTag compoundtag = new CompoundTag();
+        compoundtag.putLongArray("empty", longlist.toLongArray());
+        CompoundTag compoundtag1 = new CompoundTag();
+
+        for (Entry<ResourceLocation, LongList> entry2 : map.entrySet()) {
+            CompoundTag compoundtag2 = new CompoundTag();
+            compoundtag2.putLongArray("chunks", entry2.getValue().toLongArray());
+            compoundtag2.putIntArray("references", map1.get(entry2.getKey()).toIntArray());
+            compoundtag1.put(entry2.getKey().toString(), compoundtag2);
+        }
+
+        compoundtag.put("starts", compoundtag1);
+        return compoundtag;
+    }
+
+    static class Cell {
+        final Long2ObjectMap<Object2IntMap<Structure>> starts = new Long2ObjectOpenHashMap<>();
+        final LongSet ungenerated = new LongOpenHashSet();
+        boolean changed;
+    }
+}
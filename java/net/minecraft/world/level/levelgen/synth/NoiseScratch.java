@@ -0,0 +1,28 @@
+package net.minecraft.world.level.levelgen.synth;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class NoiseScratch {
+    private static final ThreadLocal<NoiseScratch> CURRENT = ThreadLocal.withInitial(NoiseScratch::new);
+    private final List<double[]> buffers = new ArrayList<>();
+    private int used;
+
+    public static NoiseScratch get() {
+        return CURRENT.get();
+    }
+
+    public double[] take(int size) {
+        if (this.used == this.buffers.size()) {
+            this.buffers.add(new double[size]);
+        } else if (this.buffers.get(this.used).length != size) {
+            this.buffers.set(this.used, new double[size]);
+        }
+
+        return this.buffers.get(this.used++);
+    }
+
+    public void release(int count) {
+        this.used -= count;
+    }
+}
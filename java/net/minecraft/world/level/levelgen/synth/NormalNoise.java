@@ -80,6 +80,31 @@ public class NormalNoise {
         return (this.first.getValue(p_75381_, p_75382_, p_75383_) + this.second.getValue(d0, d1, d2)) * this.valueFactor;
     }
 
+    public void fillValues(double[] xs, double[] ys, double[] zs, double[] output, int count) {
+        NoiseScratch noisescratch = NoiseScratch.get();
+        double[] adouble = noisescratch.take(count);
+        double[] adouble1 = noisescratch.take(count);
+        double[] adouble2 = noisescratch.take(count);
+        double[] adouble3 = noisescratch.take(count);
+
+        try {
+            for (int i = 0; i < count; i++) {
+                adouble[i] = xs[i] * 1.0181268882175227;
+                adouble1[i] = ys[i] * 1.0181268882175227;
+                adouble2[i] = zs[i] * 1.0181268882175227;
+            }
+
+            this.first.fillValues(xs, ys, zs, output, count);
+            this.second.fillValues(adouble, adouble1, adouble2, adouble3, count);
+
+            for (int j = 0; j < count; j++) {
+                output[j] = (output[j] + adouble3[j]) * this.valueFactor;
+            }
+        } finally {
+            noisescratch.release(4);
+        }
+    }
+
     public NormalNoise.NoiseParameters parameters() {
         return this.parameters;
     }
@@ -187,6 +187,27 @@ public class PerlinNoise {
         return d0;
     }
 
+    public void fillValues(double[] xs, double[] ys, double[] zs, double[] output, int count) {
+        Arrays.fill(output, 0, count, 0.0);
+        double d0 = this.lowestFreqInputFactor;
+        double d1 = this.lowestFreqValueFactor;
+
+        for (int i = 0; i < this.noiseLevels.length; i++) {
+            ImprovedNoise improvednoise = this.noiseLevels[i];
+            if (improvednoise != null) {
+                double d2 = this.amplitudes.getDouble(i);
+
+                for (int j = 0; j < count; j++) {
+                    double d3 = improvednoise.noise(wrap(xs[j] * d0), wrap(ys[j] * d0), wrap(zs[j] * d0));
+                    output[j] += d2 * d3 * d1;
+                }
+            }
+
+            d0 *= 2.0;
+            d1 /= 2.0;
+        }
+    }
+
     @Nullable
     public ImprovedNoise getOctaveNoise(int p_75425_) {
         return this.noiseLevels[this.noiseLevels.length - 1 - p_75425_];
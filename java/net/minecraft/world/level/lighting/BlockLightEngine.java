@@ -106,6 +106,11 @@ public final class BlockLightEngine extends LightEngine<BlockLightSectionStorage
         }
     }
 
+    @Override
+    protected LightEngine<BlockLightSectionStorage.BlockDataLayerStorageMap, BlockLightSectionStorage> createRegionWorker() {
+        return new BlockLightEngine(this.chunkSource, new BlockLightSectionStorage(this.chunkSource));
+    }
+
     private int getEmission(long p_285243_, BlockState p_284973_) {
         int i = p_284973_.getLightEmission();
         return i > 0 && this.storage.lightOnInSection(SectionPos.blockToSection(p_285243_)) ? i : 0;
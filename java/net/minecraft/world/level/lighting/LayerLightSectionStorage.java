@@ -173,6 +173,36 @@ public abstract class LayerLightSectionStorage<M extends DataLayerStorageMap<M>>
         }
     }
 
+    protected void copyColumnFrom(LayerLightSectionStorage<M> source, int chunkX, int chunkZ, int minSection, int maxSection) {
+        long i = SectionPos.getZeroNode(chunkX, chunkZ);
+        if (source.columnsWithSources.contains(i)) {
+            this.columnsWithSources.add(i);
+        }
+
+        for (int j = minSection; j <= maxSection; j++) {
+            long k = SectionPos.asLong(chunkX, j, chunkZ);
+            DataLayer datalayer = source.updatingSectionData.getLayer(k);
+            if (datalayer != null) {
+                this.updatingSectionData.setLayer(k, datalayer);
+            }
+        }
+
+        this.updatingSectionData.clearCache();
+    }
+
+    protected void mergeRegionChanges(LayerLightSectionStorage<M> region) {
+        LongIterator longiterator = region.changedSections.iterator();
+
+        while (longiterator.hasNext()) {
+            long i = longiterator.nextLong();
+            this.updatingSectionData.setLayer(i, region.updatingSectionData.getLayer(i));
+            this.changedSections.add(i);
+        }
+
+        this.updatingSectionData.clearCache();
+        this.sectionsAffectedByLightUpdates.addAll(region.sectionsAffectedByLightUpdates);
+    }
+
     protected void onNodeAdded(long p_75798_) {
     }
 
@@ -1,13 +1,24 @@
 package net.minecraft.world.level.lighting;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongList;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nullable;
+import net.minecraft.Util;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.core.SectionPos;
+import net.minecraft.util.Mth;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.state.BlockState;
@@ -31,6 +42,15 @@ public abstract class LightEngine<M extends DataLayerStorageMap<M>, S extends La
     private static final int CACHE_SIZE = 2;
     private final long[] lastChunkPos = new long[2];
     private final LightChunk[] lastChunk = new LightChunk[2];
+    private static final int REGION_SIZE_CHUNKS = 2;
+    private static final int REGION_PROPAGATION_THRESHOLD = 16384;
+    private static volatile int regionPropagationTasks = defaultRegionPropagationTasks();
+    @Nullable
+    private LongList borderDecreases;
+    @Nullable
+    private LongList borderIncreases;
+    private int regionMinX;
+    private int regionMinZ;
 
     protected LightEngine(LightChunkGetter p_285189_, S p_284964_) {
         this.chunkSource = p_285189_;
@@ -38,6 +58,14 @@ public abstract class LightEngine<M extends DataLayerStorageMap<M>, S extends La
         this.clearChunkCache();
     }
 
+    public static void configureRegionPropagation(int tasks) {
+        regionPropagationTasks = tasks > 0 ? tasks : defaultRegionPropagationTasks();
+    }
+
+    private static int defaultRegionPropagationTasks() {
+        return Mth.clamp(Runtime.getRuntime().availableProcessors() / 4, 1, 4);
+    }
+
     public static boolean hasDifferentLightProperties(BlockState p_285110_, BlockState p_285372_) {
         return p_285372_ == p_285110_
             ? false
@@ -142,6 +170,10 @@ public abstract class LightEngine<M extends DataLayerStorageMap<M>, S extends La
         this.blockNodesToCheck.clear();
         this.blockNodesToCheck.trim(512);
         int i = 0;
+        if (regionPropagationTasks > 1 && this.decreaseQueue.size() + this.increaseQueue.size() >= 16384) {
+            i += this.propagateInRegions();
+        }
+
         i += this.propagateDecreases();
         i += this.propagateIncreases();
         this.clearChunkCache();
@@ -163,6 +195,10 @@ public abstract class LightEngine<M extends DataLayerStorageMap<M>, S extends La
             }
 
             if (l == i1) {
+                if (this.borderIncreases != null) {
+                    k = this.deferBorderDirections(j, k, this.borderIncreases);
+                }
+
                 this.propagateIncrease(j, k, l);
             }
         }
@@ -175,12 +211,161 @@ public abstract class LightEngine<M extends DataLayerStorageMap<M>, S extends La
         for (i = 0; !this.decreaseQueue.isEmpty(); i++) {
             long j = this.decreaseQueue.dequeueLong();
             long k = this.decreaseQueue.dequeueLong();
+            if (this.borderDecreases != null) {
+                k = this.deferBorderDirections(j, k, this.borderDecreases);
+            }
+
             this.propagateDecrease(j, k);
         }
 
         return i;
     }
 
+    private int propagateInRegions() {
+        LightEngine<M, S> lightengine = this.createRegionWorker();
+        if (lightengine == null) {
+            return 0;
+        } else {
+            Long2ObjectMap<LightEngine<M, S>> long2objectmap = new Long2ObjectLinkedOpenHashMap<>();
+
+            while (!this.decreaseQueue.isEmpty()) {
+                long i = this.decreaseQueue.dequeueLong();
+                long j = this.decreaseQueue.dequeueLong();
+                this.getRegionWorker(long2objectmap, i, lightengine).enqueueDecrease(i, j);
+            }
+
+            while (!this.increaseQueue.isEmpty()) {
+                long k = this.increaseQueue.dequeueLong();
+                long l = this.increaseQueue.dequeueLong();
+                this.getRegionWorker(long2objectmap, k, lightengine).enqueueIncrease(k, l);
+            }
+
+            List<LightEngine<M, S>> list = new ArrayList<>(long2objectmap.values());
+            int i1 = runRegionWorkers(list);
+
+            for (LightEngine<M, S> lightengine1 : list) {
+                this.storage.mergeRegionChanges(lightengine1.storage);
+                LongList longlist = lightengine1.borderDecreases;
+
+                for (int j1 = 0; j1 < longlist.size(); j1 += 2) {
+                    this.enqueueDecrease(longlist.getLong(j1), longlist.getLong(j1 + 1));
+                }
+
+                LongList longlist1 = lightengine1.borderIncreases;
+
+                for (int k1 = 0; k1 < longlist1.size(); k1 += 2) {
+                    this.enqueueIncrease(longlist1.getLong(k1), longlist1.getLong(k1 + 1));
+                }
+            }
+
+            return i1;
+        }
+    }
+
+    private LightEngine<M, S> getRegionWorker(Long2ObjectMap<LightEngine<M, S>> workers, long pos, LightEngine<M, S> firstWorker) {
+        int i = SectionPos.blockToSectionCoord(BlockPos.getX(pos)) >> 1;
+        int j = SectionPos.blockToSectionCoord(BlockPos.getZ(pos)) >> 1;
+        long k = ChunkPos.asLong(i, j);
+        LightEngine<M, S> lightengine = workers.get(k);
+        if (lightengine == null) {
+            lightengine = workers.isEmpty() ? firstWorker : this.createRegionWorker();
+            lightengine.prepareRegion(this, i, j);
+            workers.put(k, lightengine);
+        }
+
+        return lightengine;
+    }
+
+    private void prepareRegion(LightEngine<M, S> parent, int regionX, int regionZ) {
+        int i = regionX << 1;
+        int j = regionZ << 1;
+        int k = this.chunkSource.getLevel().getMinSectionY() - 1;
+        int l = this.chunkSource.getLevel().getMaxSectionY() + 1;
+        this.regionMinX = SectionPos.sectionToBlockCoord(i);
+        this.regionMinZ = SectionPos.sectionToBlockCoord(j);
+        this.borderDecreases = new LongArrayList();
+        this.borderIncreases = new LongArrayList();
+
+        for (int i1 = 0; i1 < 2; i1++) {
+            for (int j1 = 0; j1 < 2; j1++) {
+                this.storage.copyColumnFrom(parent.storage, i + i1, j + j1, k, l);
+            }
+        }
+    }
+
+    private static <M extends DataLayerStorageMap<M>, S extends LayerLightSectionStorage<M>> int runRegionWorkers(List<LightEngine<M, S>> workers) {
+        List<CompletableFuture<Integer>> list = new ArrayList<>(workers.size());
+
+        for (int i = 0; i < workers.size(); i++) {
+            list.add(new CompletableFuture<>());
+        }
+
+        AtomicInteger atomicinteger = new AtomicInteger();
+        Runnable runnable = () -> {
+            for (int k = atomicinteger.getAndIncrement(); k < workers.size(); k = atomicinteger.getAndIncrement()) {
+                try {
+                    list.get(k).complete(workers.get(k).propagateRegion());
+                } catch (Throwable throwable) {
+                    list.get(k).completeExceptionally(throwable);
+                }
+            }
+        };
+        Executor executor = Util.backgroundExecutor().forName("light_regions");
+
+        for (int j = Math.min(regionPropagationTasks, workers.size()); j > 1; j--) {
+            executor.execute(runnable);
+        }
+
+        runnable.run();
+        int l = 0;
+
+        for (CompletableFuture<Integer> completablefuture : list) {
+            l += completablefuture.join();
+        }
+
+        return l;
+    }
+
+    private int propagateRegion() {
+        int i = this.propagateDecreases() + this.propagateIncreases();
+        this.clearChunkCache();
+        return i;
+    }
+
+    private long deferBorderDirections(long pos, long entry, LongList border) {
+        int i = BlockPos.getX(pos) - this.regionMinX;
+        int j = BlockPos.getZ(pos) - this.regionMinZ;
+        long k = entry;
+        if (i == 0) {
+            k = deferDirection(pos, k, Direction.WEST, border);
+        } else if (i == 31) {
+            k = deferDirection(pos, k, Direction.EAST, border);
+        }
+
+        if (j == 0) {
+            k = deferDirection(pos, k, Direction.NORTH, border);
+        } else if (j == 31) {
+            k = deferDirection(pos, k, Direction.SOUTH, border);
+        }
+
+        return k;
+    }
+
+    private static long deferDirection(long pos, long entry, Direction direction, LongList border) {
+        if (LightEngine.QueueEntry.shouldPropagateInDirection(entry, direction)) {
+            border.add(pos);
+            border.add(LightEngine.QueueEntry.onlyDirection(entry, direction));
+            return LightEngine.QueueEntry.withoutDirection(entry, direction);
+        } else {
+            return entry;
+        }
+    }
+
+    @Nullable
+    protected LightEngine<M, S> createRegionWorker() {
+        return null;
+    }
+
     protected void enqueueDecrease(long p_285228_, long p_285464_) {
         this.decreaseQueue.enqueue(p_285228_);
         this.decreaseQueue.enqueue(p_285464_);
@@ -292,6 +477,10 @@ public abstract class LightEngine<M extends DataLayerStorageMap<M>, S extends La
             return i;
         }
 
+        public static long onlyDirection(long p_369217_, Direction p_362554_) {
+            return withDirection(p_369217_ & -3057L, p_362554_);
+        }
+
         public static int getFromLevel(long p_285483_) {
             return (int)(p_285483_ & 15L);
         }
@@ -1,5 +1,6 @@
 package net.minecraft.world.level.lighting;
 
+import java.util.Arrays;
 import java.util.Objects;
 import javax.annotation.Nullable;
 import net.minecraft.core.BlockPos;
@@ -292,53 +293,83 @@ public final class SkyLightEngine extends LightEngine<SkyLightSectionStorage.Sky
     public void propagateLightSources(ChunkPos p_285333_) {
         long i = SectionPos.getZeroNode(p_285333_.x, p_285333_.z);
         this.storage.setLightEnabled(i, true);
-        ChunkSkyLightSources chunkskylightsources = Objects.requireNonNullElse(this.getChunkSources(p_285333_.x, p_285333_.z), this.emptyChunkSources);
-        ChunkSkyLightSources chunkskylightsources1 = Objects.requireNonNullElse(this.getChunkSources(p_285333_.x, p_285333_.z - 1), this.emptyChunkSources);
-        ChunkSkyLightSources chunkskylightsources2 = Objects.requireNonNullElse(this.getChunkSources(p_285333_.x, p_285333_.z + 1), this.emptyChunkSources);
-        ChunkSkyLightSources chunkskylightsources3 = Objects.requireNonNullElse(this.getChunkSources(p_285333_.x - 1, p_285333_.z), this.emptyChunkSources);
-        ChunkSkyLightSources chunkskylightsources4 = Objects.requireNonNullElse(this.getChunkSources(p_285333_.x + 1, p_285333_.z), this.emptyChunkSources);
-        int j = this.storage.getTopSectionY(i);
-        int k = this.storage.getBottomSectionY();
-        int l = SectionPos.sectionToBlockCoord(p_285333_.x);
-        int i1 = SectionPos.sectionToBlockCoord(p_285333_.z);
-
-        for (int j1 = j - 1; j1 >= k; j1--) {
-            long k1 = SectionPos.asLong(p_285333_.x, j1, p_285333_.z);
-            DataLayer datalayer = this.storage.getDataLayerToWrite(k1);
+        int[] aint = this.getLowestSourcesAround(p_285333_);
+        int j = Integer.MIN_VALUE;
+
+        for (int k : aint) {
+            j = Math.max(j, k);
+        }
+
+        int l = this.storage.getTopSectionY(i);
+        int i1 = this.storage.getBottomSectionY();
+        int j1 = SectionPos.sectionToBlockCoord(p_285333_.x);
+        int k1 = SectionPos.sectionToBlockCoord(p_285333_.z);
+
+        for (int l1 = l - 1; l1 >= i1; l1--) {
+            long i2 = SectionPos.asLong(p_285333_.x, l1, p_285333_.z);
+            DataLayer datalayer = this.storage.getDataLayerToWrite(i2);
             if (datalayer != null) {
-                int l1 = SectionPos.sectionToBlockCoord(j1);
-                int i2 = l1 + 15;
-                boolean flag = false;
-
-                for (int j2 = 0; j2 < 16; j2++) {
-                    for (int k2 = 0; k2 < 16; k2++) {
-                        int l2 = chunkskylightsources.getLowestSourceY(k2, j2);
-                        if (l2 <= i2) {
-                            int i3 = j2 == 0 ? chunkskylightsources1.getLowestSourceY(k2, 15) : chunkskylightsources.getLowestSourceY(k2, j2 - 1);
-                            int j3 = j2 == 15 ? chunkskylightsources2.getLowestSourceY(k2, 0) : chunkskylightsources.getLowestSourceY(k2, j2 + 1);
-                            int k3 = k2 == 0 ? chunkskylightsources3.getLowestSourceY(15, j2) : chunkskylightsources.getLowestSourceY(k2 - 1, j2);
-                            int l3 = k2 == 15 ? chunkskylightsources4.getLowestSourceY(0, j2) : chunkskylightsources.getLowestSourceY(k2 + 1, j2);
-                            int i4 = Math.max(Math.max(i3, j3), Math.max(k3, l3));
-
-                            for (int j4 = i2; j4 >= Math.max(l1, l2); j4--) {
-                                datalayer.set(k2, SectionPos.sectionRelative(j4), j2, 15);
-                                if (j4 == l2 || j4 < i4) {
-                                    long k4 = BlockPos.asLong(l + k2, j4, i1 + j2);
-                                    this.enqueueIncrease(k4, LightEngine.QueueEntry.increaseSkySourceInDirections(j4 == l2, j4 < i3, j4 < j3, j4 < k3, j4 < l3));
+                int j2 = SectionPos.sectionToBlockCoord(l1);
+                int k2 = j2 + 15;
+                if (j2 > j) {
+                    datalayer.fill(15);
+                } else {
+                    boolean flag = false;
+
+                    for (int l2 = 0; l2 < 16; l2++) {
+                        for (int i3 = 0; i3 < 16; i3++) {
+                            int j3 = i3 + 1 + (l2 + 1) * 18;
+                            int k3 = aint[j3];
+                            if (k3 <= k2) {
+                                int l3 = aint[j3 - 18];
+                                int i4 = aint[j3 + 18];
+                                int j4 = aint[j3 - 1];
+                                int k4 = aint[j3 + 1];
+                                int l4 = Math.max(Math.max(l3, i4), Math.max(j4, k4));
+
+                                for (int i5 = k2; i5 >= Math.max(j2, k3); i5--) {
+                                    datalayer.set(i3, SectionPos.sectionRelative(i5), l2, 15);
+                                    if (i5 == k3 || i5 < l4) {
+                                        long j5 = BlockPos.asLong(j1 + i3, i5, k1 + l2);
+                                        this.enqueueIncrease(j5, LightEngine.QueueEntry.increaseSkySourceInDirections(i5 == k3, i5 < l3, i5 < i4, i5 < j4, i5 < k4));
+                                    }
                                 }
-                            }
 
-                            if (l2 < l1) {
-                                flag = true;
+                                if (k3 < j2) {
+                                    flag = true;
+                                }
                             }
                         }
                     }
-                }
 
-                if (!flag) {
-                    break;
+                    if (!flag) {
+                        break;
+                    }
                 }
             }
         }
     }
+
+    private int[] getLowestSourcesAround(ChunkPos p_363120_) {
+        ChunkSkyLightSources chunkskylightsources = Objects.requireNonNullElse(this.getChunkSources(p_363120_.x, p_363120_.z), this.emptyChunkSources);
+        ChunkSkyLightSources chunkskylightsources1 = Objects.requireNonNullElse(this.getChunkSources(p_363120_.x, p_363120_.z - 1), this.emptyChunkSources);
+        ChunkSkyLightSources chunkskylightsources2 = Objects.requireNonNullElse(this.getChunkSources(p_363120_.x, p_363120_.z + 1), this.emptyChunkSources);
+        ChunkSkyLightSources chunkskylightsources3 = Objects.requireNonNullElse(this.getChunkSources(p_363120_.x - 1, p_363120_.z), this.emptyChunkSources);
+        ChunkSkyLightSources chunkskylightsources4 = Objects.requireNonNullElse(this.getChunkSources(p_363120_.x + 1, p_363120_.z), this.emptyChunkSources);
+        int[] aint = new int[324];
+        Arrays.fill(aint, Integer.MIN_VALUE);
+
+        for (int i = 0; i < 16; i++) {
+            aint[i + 1] = chunkskylightsources1.getLowestSourceY(i, 15);
+            aint[i + 1 + 306] = chunkskylightsources2.getLowestSourceY(i, 0);
+            aint[(i + 1) * 18] = chunkskylightsources3.getLowestSourceY(15, i);
+            aint[17 + (i + 1) * 18] = chunkskylightsources4.getLowestSourceY(0, i);
+
+            for (int j = 0; j < 16; j++) {
+                aint[j + 1 + (i + 1) * 18] = chunkskylightsources.getLowestSourceY(j, i);
+            }
+        }
+
+        return aint;
+    }
 }
\ No newline at end of file
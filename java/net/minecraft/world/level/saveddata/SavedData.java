@@ -2,6 +2,7 @@ package net.minecraft.world.level.saveddata;
 
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
+import javax.annotation.Nullable;
 import net.minecraft.core.HolderLookup;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.NbtUtils;
@@ -33,7 +34,7 @@ public abstract class SavedData {
     }
 
     public static record Factory<T extends SavedData>(
-        Supplier<T> constructor, BiFunction<CompoundTag, HolderLookup.Provider, T> deserializer, DataFixTypes type
+        Supplier<T> constructor, BiFunction<CompoundTag, HolderLookup.Provider, T> deserializer, @Nullable DataFixTypes type
     ) {
     }
 }
\ No newline at end of file
@@ -73,7 +73,7 @@ public class DimensionDataStorage implements AutoCloseable {
     }
 
     @Nullable
-    private <T extends SavedData> T readSavedData(BiFunction<CompoundTag, HolderLookup.Provider, T> p_335409_, DataFixTypes p_300231_, String p_164870_) {
+    private <T extends SavedData> T readSavedData(BiFunction<CompoundTag, HolderLookup.Provider, T> p_335409_, @Nullable DataFixTypes p_300231_, String p_164870_) {
         try {
             Path path = this.getDataFile(p_164870_);
             if (Files.exists(path)) {
@@ -92,7 +92,7 @@ public class DimensionDataStorage implements AutoCloseable {
         p_164857_.setDirty();
     }
 
-    public CompoundTag readTagFromDisk(String p_78159_, DataFixTypes p_301060_, int p_78160_) throws IOException {
+    public CompoundTag readTagFromDisk(String p_78159_, @Nullable DataFixTypes p_301060_, int p_78160_) throws IOException {
         CompoundTag compoundtag1;
         try (
             InputStream inputstream = Files.newInputStream(this.getDataFile(p_78159_));
@@ -107,8 +107,12 @@ public class DimensionDataStorage implements AutoCloseable {
                 }
             }
 
-            int i = NbtUtils.getDataVersion(compoundtag, 1343);
-            compoundtag1 = p_301060_.update(this.fixerUpper, compoundtag, i, p_78160_);
+            if (p_301060_ == null) {
+                compoundtag1 = compoundtag;
+            } else {
+                int i = NbtUtils.getDataVersion(compoundtag, 1343);
+                compoundtag1 = p_301060_.update(this.fixerUpper, compoundtag, i, p_78160_);
+            }
         }
 
         return compoundtag1;
@@ -12,6 +12,7 @@ public class LevelResource {
     public static final LevelResource GENERATED_DIR = new LevelResource("generated");
     public static final LevelResource DATAPACK_DIR = new LevelResource("datapacks");
     public static final LevelResource MAP_RESOURCE_FILE = new LevelResource("resources.zip");
+    public static final LevelResource REGION_DICTIONARIES_DIR = new LevelResource("region_dictionaries");
     public static final LevelResource ROOT = new LevelResource(".");
     private final String id;
 